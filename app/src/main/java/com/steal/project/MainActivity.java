@@ -1,15 +1,12 @@
 package com.steal.project;
 
-import android.graphics.Canvas;
-import android.graphics.Paint;
 import android.graphics.Typeface;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.widget.SectionIndexer;
-import android.widget.TextView;
 
 import com.steal.FastScroller;
-import com.steal.common.Property;
+import com.steal.SectionStyle;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -19,63 +16,63 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
         final FastScroller scroller = findViewById(R.id.indexer_scroller);
-        final TextView tvSection = findViewById(R.id.tv_section);
 
         scroller.setSectionIndexer(new PreviewSectionIndexer());
 
-        scroller.addOnSectionScrolledListener(new FastScroller.OnSectionScrolledListener() {
+        // alpha decoration
+        scroller.addStyleDecoration(new FastScroller.AnimatedStyleDecorationItem() {
             @Override
-            public void onSectionScrolled(SectionIndexer indexer, int section) {
-                tvSection.setText(String.valueOf(section));
+            public void onStyle(SectionStyle style, int index, int distance) {
+                onStyle(style, index, (float) distance);
             }
-        });
 
-        // alpha decoration
-        scroller.addDecoration(new FastScroller.DecorationItem() {
             @Override
-            public void onDraw(Canvas canvas, Property<String> text, Property<Paint> paint, int index, int distance) {
+            public void onStyle(SectionStyle style, int index, float distance) {
                 float progress = Math.min(distance, 4) / 4f;
 
-                if (distance == 0) {
-                    progress = 1;
+                if (distance < 1) {
+                    progress = Math.max(progress, 1 - distance);
                 }
 
-                paint.getValue().setAlpha(50 + (int) (progress * 205));
+                style.setAlpha(50 + (int) (progress * 205));
             }
         });
 
         // text size decoration
-        scroller.addDecoration(new FastScroller.DecorationItem() {
+        scroller.addStyleDecoration(new FastScroller.AnimatedStyleDecorationItem() {
             @Override
-            public void onDraw(Canvas canvas, Property<String> text, Property<Paint> paint, int index, int distance) {
+            public void onStyle(SectionStyle style, int index, int distance) {
+                onStyle(style, index, (float) distance);
+            }
+
+            @Override
+            public void onStyle(SectionStyle style, int index, float distance) {
                 float progress = 0.5f + Math.min(distance, 4) / 4f * 0.5f;
 
-                if (distance == 0) {
-                    progress = 1f;
+                if (distance < 1) {
+                    progress = Math.max(progress, 1 - distance);
                 }
 
-                paint.getValue().setTextSize(scroller.getTextSize() * progress);
+                style.setScale(progress);
             }
         });
 
         // bold decoration
-        scroller.addDecoration(new FastScroller.DecorationItem() {
+        scroller.addStyleDecoration(new FastScroller.StyleDecorationItem() {
             @Override
-            public void onDraw(Canvas canvas, Property<String> text, Property<Paint> paint, int index, int distance) {
+            public void onStyle(SectionStyle style, int index, int distance) {
                 if (distance == 0) {
-                    paint.getValue().setTypeface(Typeface.DEFAULT_BOLD);
-                } else {
-                    paint.getValue().setTypeface(Typeface.DEFAULT);
+                    style.setTypeface(Typeface.DEFAULT_BOLD);
                 }
             }
         });
 
         // section text overload decoration
-        scroller.addDecoration(new FastScroller.DecorationItem() {
+        scroller.addStyleDecoration(new FastScroller.StyleDecorationItem() {
             @Override
-            public void onDraw(Canvas canvas, Property<String> text, Property<Paint> paint, int index, int distance) {
+            public void onStyle(SectionStyle style, int index, int distance) {
                 if (distance == 0) {
-                    text.setValue("★");
+                    style.setLabel("★");
                 }
             }
         });
@@ -0,0 +1,79 @@
+package com.steal.benchmark;
+
+import com.steal.common.SectionLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// index resolution of onTouchEvent, one op is one ACTION_MOVE sample
+@State(Scope.Thread)
+public class HitTestBenchmark {
+    private static final float CONTENT_HEIGHT = 1920;
+    private static final int SAMPLES = 4096;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    @Param({"false", "true"})
+    public boolean weighted;
+
+    private SectionLayout layout;
+    private float[] moves;
+    private int cursor;
+    private int sectionIndex = -1;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        layout = new SectionLayout();
+        layout.setCount(count);
+
+        if (weighted) {
+            float[] weights = new float[count];
+
+            for (int i = 0; i < count; i++) {
+                weights[i] = random.nextInt(100);
+            }
+
+            layout.setWeights(weights, count);
+        }
+
+        layout.setMetrics(CONTENT_HEIGHT / count * 0.75f, CONTENT_HEIGHT / count * 0.25f, CONTENT_HEIGHT / count / 2);
+
+        // a finger scrubbing up and down with jitter
+        moves = new float[SAMPLES];
+
+        float y = 0;
+        float velocity = 12;
+
+        for (int i = 0; i < SAMPLES; i++) {
+            if (y < 0 || y > CONTENT_HEIGHT) {
+                velocity = -velocity;
+            }
+
+            y += velocity + random.nextFloat() * 4 - 2;
+            moves[i] = y;
+        }
+    }
+
+    @Benchmark
+    public int move() {
+        float y = moves[cursor];
+
+        cursor = (cursor + 1) & (SAMPLES - 1);
+
+        int index = layout.findSection(y);
+
+        if (index != -1 && index != sectionIndex) {
+            sectionIndex = index;
+        }
+
+        return sectionIndex;
+    }
+}
@@ -0,0 +1,53 @@
+package com.steal.benchmark;
+
+import com.steal.common.SectionLabels;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// section cache update of invalidateSectionIndexer and notifySectionsChanged
+@State(Scope.Thread)
+public class SectionLabelsBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    private Object[] sections;
+    private Object[] changedSections;
+    private SectionLabels labels;
+    private boolean toggle;
+
+    @Setup
+    public void setup() {
+        sections = new Object[count];
+        changedSections = new Object[count];
+
+        for (int i = 0; i < count; i++) {
+            sections[i] = i < 26 ? Character.valueOf((char) ('A' + i)) : (Object) Integer.valueOf(i);
+            changedSections[i] = sections[i];
+        }
+
+        changedSections[count / 2] = "*";
+
+        labels = new SectionLabels();
+        labels.update(sections, true);
+    }
+
+    @Benchmark
+    public boolean invalidate() {
+        return labels.update(sections, true);
+    }
+
+    @Benchmark
+    public boolean notifyUnchanged() {
+        return labels.update(sections, false);
+    }
+
+    @Benchmark
+    public boolean notifyOneChanged() {
+        toggle = !toggle;
+        return labels.update(toggle ? changedSections : sections, false);
+    }
+}
@@ -0,0 +1,75 @@
+package com.steal.benchmark;
+
+import com.steal.common.SectionLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// layout math of onMeasure and the row walk of onDraw (Canvas calls excluded)
+@State(Scope.Thread)
+public class SectionLayoutBenchmark {
+    private static final float CONTENT_HEIGHT = 1920;
+    private static final float TEXT_HEIGHT = 40;
+    private static final float SPACING = 24;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    @Param({"false", "true"})
+    public boolean weighted;
+
+    private SectionLayout layout;
+
+    @Setup
+    public void setup() {
+        layout = new SectionLayout();
+        layout.setCount(count);
+
+        if (weighted) {
+            float[] weights = new float[count];
+
+            for (int i = 0; i < count; i++) {
+                weights[i] = (i * 7919) % 97;
+            }
+
+            layout.setWeights(weights, count);
+        }
+
+        measure();
+    }
+
+    @Benchmark
+    public float measure() {
+        layout.fit(CONTENT_HEIGHT, -1, SPACING, TEXT_HEIGHT);
+
+        layout.setMetrics(layout.getFittedSectionHeight(), layout.getFittedSpacing(), TEXT_HEIGHT);
+        layout.updateLabelSlots(TEXT_HEIGHT);
+        return layout.getTotalHeight();
+    }
+
+    @Benchmark
+    public void drawFullClip(Blackhole blackhole) {
+        draw(0, CONTENT_HEIGHT, blackhole);
+    }
+
+    @Benchmark
+    public void drawDirtyClip(Blackhole blackhole) {
+        // a selection change invalidates a few rows around the selected section
+        draw(CONTENT_HEIGHT / 2 - TEXT_HEIGHT * 4, CONTENT_HEIGHT / 2 + TEXT_HEIGHT * 4, blackhole);
+    }
+
+    private void draw(float clipTop, float clipBottom, Blackhole blackhole) {
+        int first = layout.findFirstDrawn(clipTop - TEXT_HEIGHT);
+        int last = layout.findLastDrawn(clipBottom + TEXT_HEIGHT);
+
+        for (int row = first; row <= last; row++) {
+            int index = layout.getDrawnSection(row);
+
+            blackhole.consume(layout.getTop(index) + (layout.getHeight(index) + TEXT_HEIGHT) / 2f);
+        }
+    }
+}
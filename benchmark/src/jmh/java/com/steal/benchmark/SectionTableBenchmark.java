@@ -0,0 +1,62 @@
+package com.steal.benchmark;
+
+import com.steal.common.SectionTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// SectionIndexBuilder over a sorted contact list of Latin, Hangul and digit names
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SectionTableBenchmark {
+    @Param({"1000", "150000"})
+    public int count;
+
+    private List<String> labels;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        labels = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            StringBuilder builder = new StringBuilder();
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    builder.append((char) ('A' + random.nextInt(26)));
+                    break;
+                case 1:
+                    builder.append((char) (0xAC00 + random.nextInt(11172)));
+                    break;
+                default:
+                    builder.append((char) ('0' + random.nextInt(10)));
+                    break;
+            }
+
+            builder.append("name").append(i);
+            labels.add(builder.toString());
+        }
+
+        Collections.sort(labels);
+    }
+
+    @Benchmark
+    public SectionTable build() {
+        return SectionTable.build(labels);
+    }
+}
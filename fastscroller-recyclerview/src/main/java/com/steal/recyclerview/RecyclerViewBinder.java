@@ -0,0 +1,387 @@
+package com.steal.recyclerview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.widget.SectionIndexer;
+
+import com.steal.FastScroller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RecyclerViewBinder {
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private static Executor sharedExecutor;
+
+    private final FastScroller scroller;
+    private final RecyclerView recyclerView;
+    private final RecyclerView.Adapter<?> adapter;
+    private final SectionLabelProvider provider;
+    private final Executor executor;
+    private final Handler mainHandler;
+    private final AdapterSectionIndexer indexer;
+    private final AtomicInteger generation;
+
+    private final RecyclerView.AdapterDataObserver dataObserver;
+    private final FastScroller.OnSectionScrolledListener scrolledListener;
+    private final RecyclerView.OnScrollListener scrollListener;
+    private final Runnable scheduleRunnable;
+
+    private int pendingFrom = Integer.MAX_VALUE;
+    private boolean scheduled;
+    private boolean attached;
+
+    // builds on a daemon thread shared by every binder
+    public static RecyclerViewBinder attach(FastScroller scroller, RecyclerView recyclerView, SectionLabelProvider provider) {
+        return attach(scroller, recyclerView, provider, getSharedExecutor());
+    }
+
+    // the executor is not shut down by detach
+    public static RecyclerViewBinder attach(FastScroller scroller, RecyclerView recyclerView, SectionLabelProvider provider, Executor executor) {
+        RecyclerViewBinder binder = new RecyclerViewBinder(scroller, recyclerView, provider, executor);
+        binder.attach();
+        return binder;
+    }
+
+    private static synchronized Executor getSharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "RecyclerViewBinder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return sharedExecutor;
+    }
+
+    private RecyclerViewBinder(FastScroller scroller, RecyclerView recyclerView, SectionLabelProvider provider, Executor executor) {
+        if (recyclerView.getAdapter() == null) {
+            throw new IllegalStateException("RecyclerView has no adapter");
+        }
+
+        this.scroller = scroller;
+        this.recyclerView = recyclerView;
+        this.adapter = recyclerView.getAdapter();
+        this.provider = provider;
+        this.executor = executor;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.indexer = new AdapterSectionIndexer();
+        this.generation = new AtomicInteger();
+
+        dataObserver = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                invalidate(0);
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                invalidate(positionStart);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                invalidate(positionStart);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                invalidate(positionStart);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                invalidate(Math.min(fromPosition, toPosition));
+            }
+        };
+
+        scrolledListener = new FastScroller.OnSectionScrolledListener() {
+            @Override
+            public void onSectionScrolled(SectionIndexer indexer, int section) {
+                scrollToSection(section);
+            }
+        };
+
+        // highlights the section of the first visible item and reveals an auto hidden scroller while the list scrolls
+        scrollListener = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy != 0) {
+                    RecyclerViewBinder.this.scroller.notifyListScrolled();
+                }
+
+                RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+
+                if (layoutManager instanceof LinearLayoutManager) {
+                    int position = ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+
+                    if (position != RecyclerView.NO_POSITION) {
+                        RecyclerViewBinder.this.scroller.setCurrentPosition(position);
+                    }
+                }
+            }
+        };
+
+        scheduleRunnable = new Runnable() {
+            @Override
+            public void run() {
+                scheduleBuild();
+            }
+        };
+    }
+
+    private void attach() {
+        attached = true;
+
+        adapter.registerAdapterDataObserver(dataObserver);
+        scroller.addOnSectionScrolledListener(scrolledListener);
+        scroller.setSectionIndexer(indexer);
+        recyclerView.addOnScrollListener(scrollListener);
+
+        invalidate(0);
+    }
+
+    public void detach() {
+        if (!attached) {
+            return;
+        }
+
+        attached = false;
+        generation.incrementAndGet();
+
+        mainHandler.removeCallbacks(scheduleRunnable);
+        adapter.unregisterAdapterDataObserver(dataObserver);
+        scroller.removeOnSectionScrolledListener(scrolledListener);
+        scroller.setSectionIndexer(null);
+        recyclerView.removeOnScrollListener(scrollListener);
+    }
+
+    public SectionIndexer getSectionIndexer() {
+        return indexer;
+    }
+
+    // rebuilds the whole index, when the labels changed without an adapter notification
+    public void rebuild() {
+        invalidate(0);
+    }
+
+    private void invalidate(int from) {
+        if (!attached) {
+            return;
+        }
+
+        pendingFrom = Math.min(pendingFrom, Math.max(0, from));
+
+        // coalesces the notifications of the same message loop into one build
+        if (!scheduled) {
+            scheduled = true;
+            mainHandler.post(scheduleRunnable);
+        }
+    }
+
+    private void scheduleBuild() {
+        scheduled = false;
+
+        if (!attached) {
+            return;
+        }
+
+        final int token = generation.incrementAndGet();
+        final Index base = indexer.index;
+        final int from = pendingFrom;
+        final int itemCount = adapter.getItemCount();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Index index;
+
+                try {
+                    index = build(base, from, itemCount, token);
+                } catch (final RuntimeException e) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            rebuildFailed(e, from, itemCount, token);
+                        }
+                    });
+                    return;
+                }
+
+                if (index == null) {
+                    return;
+                }
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        publish(index, token);
+                    }
+                });
+            }
+        });
+    }
+
+    // only a list that changed under the build (e.g. shrank before the adapter notification) excuses the provider,
+    // otherwise its exception is raised on the main thread
+    private void rebuildFailed(RuntimeException e, int from, int itemCount, int token) {
+        if (adapter.getItemCount() == itemCount) {
+            throw e;
+        }
+
+        if (attached && generation.get() == token) {
+            invalidate(from);
+        }
+    }
+
+    private void publish(Index index, int token) {
+        if (!attached || generation.get() != token) {
+            return;
+        }
+
+        pendingFrom = Integer.MAX_VALUE;
+        indexer.index = index;
+        scroller.notifySectionsChanged();
+    }
+
+    // worker thread, sections before the one containing `from` are kept from the base index
+    private Index build(Index base, int from, int itemCount, int token) {
+        int keep = 0;
+        int start = 0;
+
+        if (base != null && base.count > 0 && from > 0) {
+            keep = base.getSectionForPosition(Math.min(from, base.itemCount - 1));
+            start = base.starts[keep];
+        }
+
+        int capacity = Math.max(16, keep * 2);
+        String[] labels = new String[capacity];
+        int[] starts = new int[capacity];
+        int count = keep;
+
+        if (keep > 0) {
+            System.arraycopy(base.labels, 0, labels, 0, keep);
+            System.arraycopy(base.starts, 0, starts, 0, keep);
+        }
+
+        for (int position = start; position < itemCount; position++) {
+            if (position % CANCEL_CHECK_INTERVAL == 0 && generation.get() != token) {
+                return null;
+            }
+
+            String label = String.valueOf(provider.getSectionLabel(position));
+
+            if (count > 0 && label.equals(labels[count - 1])) {
+                continue;
+            }
+
+            if (count == labels.length) {
+                String[] newLabels = new String[count * 2];
+                int[] newStarts = new int[count * 2];
+
+                System.arraycopy(labels, 0, newLabels, 0, count);
+                System.arraycopy(starts, 0, newStarts, 0, count);
+
+                labels = newLabels;
+                starts = newStarts;
+            }
+
+            labels[count] = label;
+            starts[count] = position;
+            count++;
+        }
+
+        String[] trimmedLabels = new String[count];
+        int[] trimmedStarts = new int[count];
+
+        System.arraycopy(labels, 0, trimmedLabels, 0, count);
+        System.arraycopy(starts, 0, trimmedStarts, 0, count);
+
+        return new Index(trimmedLabels, trimmedStarts, itemCount);
+    }
+
+    private void scrollToSection(int section) {
+        int position = indexer.getPositionForSection(section);
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(position, 0);
+        } else {
+            recyclerView.scrollToPosition(position);
+        }
+    }
+
+    public interface SectionLabelProvider {
+        // called on a background thread, equal labels of consecutive items form one section
+        String getSectionLabel(int position);
+    }
+
+    private static final class Index {
+        final String[] labels;
+        final int[] starts;
+        final int count;
+        final int itemCount;
+
+        Index(String[] labels, int[] starts, int itemCount) {
+            this.labels = labels;
+            this.starts = starts;
+            this.count = labels.length;
+            this.itemCount = itemCount;
+        }
+
+        int getPositionForSection(int section) {
+            if (count == 0) {
+                return 0;
+            }
+
+            return starts[Math.max(0, Math.min(count - 1, section))];
+        }
+
+        int getSectionForPosition(int position) {
+            int low = 0;
+            int high = count - 1;
+
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+
+                if (starts[mid] <= position) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return Math.max(0, low);
+        }
+    }
+
+    private static final class AdapterSectionIndexer implements SectionIndexer {
+        private static final Index EMPTY = new Index(new String[0], new int[0], 0);
+
+        private Index index = EMPTY;
+
+        @Override
+        public Object[] getSections() {
+            return index.labels;
+        }
+
+        @Override
+        public int getPositionForSection(int sectionIndex) {
+            return index.getPositionForSection(sectionIndex);
+        }
+
+        @Override
+        public int getSectionForPosition(int position) {
+            return index.getSectionForPosition(position);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.steal;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+import android.widget.SectionIndexer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Section index persisted in a binary file and read back through a memory mapped buffer.
+// Layout (big endian):
+//   int magic, int format, long dataset version, int item count, int section count,
+//   int[section count] starts, (short length, char[length]) labels,
+//   int width set count, (float text size, float[section count] widths) width sets
+public class CachedSectionIndexer implements SectionIndexer {
+    private static final int MAGIC = 0x46534958;
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+    private final ByteBuffer buffer;
+    private final long datasetVersion;
+    private final int itemCount;
+    private final int sectionCount;
+    private final Object[] sections;
+    private final float[] textSizes;
+    private final int[] widthOffsets;
+
+    private CachedSectionIndexer(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        datasetVersion = buffer.getLong(8);
+        itemCount = buffer.getInt(16);
+        sectionCount = buffer.getInt(20);
+
+        // counts come from the file, nothing is allocated before they are checked against its size
+        checkRemaining(buffer, HEADER_SIZE, sectionCount, 4);
+        buffer.position(HEADER_SIZE + sectionCount * 4);
+
+        checkRemaining(buffer, buffer.position(), sectionCount, 2);
+        sections = new Object[sectionCount];
+
+        for (int i = 0; i < sectionCount; i++) {
+            short length = buffer.getShort();
+
+            checkRemaining(buffer, buffer.position(), length, 2);
+            char[] chars = new char[length];
+
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = buffer.getChar();
+            }
+
+            sections[i] = new String(chars);
+        }
+
+        int widthSetCount = buffer.getInt();
+
+        checkRemaining(buffer, buffer.position(), widthSetCount, 4 + sectionCount * 4L);
+        textSizes = new float[widthSetCount];
+        widthOffsets = new int[widthSetCount];
+
+        for (int i = 0; i < widthSetCount; i++) {
+            textSizes[i] = buffer.getFloat();
+            widthOffsets[i] = buffer.position();
+            buffer.position(buffer.position() + sectionCount * 4);
+        }
+    }
+
+    // count entries of size bytes fit in the buffer after offset
+    private static void checkRemaining(ByteBuffer buffer, long offset, long count, long size) {
+        if (count < 0 || offset + count * size > buffer.limit()) {
+            throw new IllegalArgumentException("corrupt section index");
+        }
+    }
+
+    // null when the file is missing, of another dataset version or unreadable
+    public static CachedSectionIndexer load(File file, long datasetVersion) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            RandomAccessFile input = new RandomAccessFile(file, "r");
+
+            try {
+                FileChannel channel = input.getChannel();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+                if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT
+                        || buffer.getLong(8) != datasetVersion) {
+                    return null;
+                }
+
+                return new CachedSectionIndexer(buffer);
+            } finally {
+                input.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // measures the labels at every text size with the default typeface, the file is replaced atomically
+    public static void save(File file, long datasetVersion, SectionIndexer indexer, int itemCount, float... textSizes) throws IOException {
+        Object[] sections = indexer.getSections();
+        int sectionCount = sections != null ? sections.length : 0;
+        String[] labels = new String[sectionCount];
+        int size = HEADER_SIZE + sectionCount * 4 + 4 + textSizes.length * (4 + sectionCount * 4);
+
+        for (int i = 0; i < sectionCount; i++) {
+            labels[i] = String.valueOf(sections[i]);
+
+            if (labels[i].length() > Short.MAX_VALUE) {
+                throw new IOException("section label too long");
+            }
+
+            size += 2 + labels[i].length() * 2;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT);
+        buffer.putLong(datasetVersion);
+        buffer.putInt(itemCount);
+        buffer.putInt(sectionCount);
+
+        for (int i = 0; i < sectionCount; i++) {
+            buffer.putInt(indexer.getPositionForSection(i));
+        }
+
+        for (int i = 0; i < sectionCount; i++) {
+            buffer.putShort((short) labels[i].length());
+
+            for (int j = 0; j < labels[i].length(); j++) {
+                buffer.putChar(labels[i].charAt(j));
+            }
+        }
+
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(Typeface.DEFAULT);
+
+        buffer.putInt(textSizes.length);
+
+        for (float textSize : textSizes) {
+            paint.setTextSize(textSize);
+            buffer.putFloat(textSize);
+
+            for (int i = 0; i < sectionCount; i++) {
+                buffer.putFloat(TextMeasureCache.getInstance().measureText(paint, labels[i]));
+            }
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream output = new FileOutputStream(temp);
+
+        try {
+            output.write(buffer.array());
+            output.getFD().sync();
+        } finally {
+            output.close();
+        }
+
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("failed to replace " + file);
+        }
+    }
+
+    public long getDatasetVersion() {
+        return datasetVersion;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    // puts the stored widths into TextMeasureCache, so the first measure of FastScroller doesn't shape text
+    public void seedMeasureCache() {
+        TextMeasureCache cache = TextMeasureCache.getInstance();
+
+        for (int i = 0; i < textSizes.length; i++) {
+            for (int j = 0; j < sectionCount; j++) {
+                cache.put((String) sections[j], textSizes[i], Typeface.DEFAULT, buffer.getFloat(widthOffsets[i] + j * 4));
+            }
+        }
+    }
+
+    // whether a rebuilt indexer has the same sections and starts
+    public boolean matches(SectionIndexer indexer) {
+        Object[] other = indexer.getSections();
+
+        if (other == null || other.length != sectionCount) {
+            return false;
+        }
+
+        for (int i = 0; i < sectionCount; i++) {
+            if (!sections[i].equals(String.valueOf(other[i])) || getPositionForSection(i) != indexer.getPositionForSection(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Object[] getSections() {
+        return sections;
+    }
+
+    @Override
+    public int getPositionForSection(int sectionIndex) {
+        if (sectionCount == 0) {
+            return 0;
+        }
+
+        return getStart(Math.max(0, Math.min(sectionCount - 1, sectionIndex)));
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        int low = 0;
+        int high = sectionCount - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+
+            if (getStart(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return Math.max(0, low);
+    }
+
+    // read from the mapped file
+    private int getStart(int section) {
+        return buffer.getInt(HEADER_SIZE + section * 4);
+    }
+}
@@ -0,0 +1,149 @@
+package com.steal;
+
+import android.widget.SectionIndexer;
+
+import com.steal.common.FenwickTree;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Mutable indexer over a fixed, ordered set of labels, only labels with items are sections.
+// Item counts live in a Fenwick tree so insertions, removals and both lookups are O(log n).
+public class DynamicSectionIndexer implements SectionIndexer {
+    private final String[] labels;
+    private final Map<String, Integer> labelIndexes;
+    private final FenwickTree counts;
+    private final FenwickTree presence;
+
+    private Object[] sections;
+    private OnSectionsChangedListener listener;
+
+    public DynamicSectionIndexer(String[] labels) {
+        this.labels = labels.clone();
+        this.labelIndexes = new HashMap<>();
+        this.counts = new FenwickTree(labels.length);
+        this.presence = new FenwickTree(labels.length);
+
+        for (int i = 0; i < labels.length; i++) {
+            labelIndexes.put(labels[i], i);
+        }
+    }
+
+    public void setOnSectionsChangedListener(OnSectionsChangedListener listener) {
+        this.listener = listener;
+    }
+
+    public int getLabelCount() {
+        return labels.length;
+    }
+
+    public String getLabel(int label) {
+        return labels[label];
+    }
+
+    // -1 if the label is not part of the set
+    public int indexOf(String label) {
+        Integer index = labelIndexes.get(label);
+        return index != null ? index : -1;
+    }
+
+    public int getCount(int label) {
+        return counts.get(label);
+    }
+
+    public int getItemCount() {
+        return counts.total();
+    }
+
+    public void insert(int label) {
+        add(label, 1);
+    }
+
+    public void remove(int label) {
+        add(label, -1);
+    }
+
+    public void add(int label, int delta) {
+        setCount(label, counts.get(label) + delta);
+    }
+
+    public void setCount(int label, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count < 0");
+        }
+
+        int old = counts.get(label);
+
+        if (old == count) {
+            return;
+        }
+
+        counts.add(label, count - old);
+
+        // the sections change only when a label gains its first item or loses its last one
+        if ((old == 0) != (count == 0)) {
+            presence.add(label, count == 0 ? -1 : 1);
+            sections = null;
+
+            if (listener != null) {
+                listener.onSectionsChanged(this);
+            }
+        }
+    }
+
+    public void clear() {
+        counts.clear();
+        presence.clear();
+        sections = null;
+
+        if (listener != null) {
+            listener.onSectionsChanged(this);
+        }
+    }
+
+    @Override
+    public Object[] getSections() {
+        if (sections == null) {
+            sections = new Object[presence.total()];
+
+            for (int i = 0, section = 0; i < labels.length; i++) {
+                if (counts.get(i) > 0) {
+                    sections[section++] = labels[i];
+                }
+            }
+        }
+
+        return sections;
+    }
+
+    @Override
+    public int getPositionForSection(int sectionIndex) {
+        int sectionCount = presence.total();
+
+        if (sectionCount == 0) {
+            return 0;
+        }
+
+        int label = presence.find(Math.max(0, Math.min(sectionCount - 1, sectionIndex)));
+
+        return counts.prefixSum(label);
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        int itemCount = counts.total();
+
+        if (itemCount == 0) {
+            return 0;
+        }
+
+        int label = counts.find(Math.max(0, Math.min(itemCount - 1, position)));
+
+        return presence.prefixSum(label);
+    }
+
+    public interface OnSectionsChangedListener {
+        // a section appeared or disappeared, item count changes of existing sections are not reported
+        void onSectionsChanged(DynamicSectionIndexer indexer);
+    }
+}
@@ -1,36 +1,61 @@
 package com.steal;
 
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.Nullable;
-import android.support.v4.content.ContextCompat;
+import android.support.v4.os.TraceCompat;
 import android.support.v4.view.ViewCompat;
-import android.support.v7.content.res.AppCompatResources;
+import android.support.v4.view.ViewPropertyAnimatorListenerAdapter;
 import android.text.TextPaint;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
-import android.view.ViewConfiguration;
+import android.view.ViewGroup;
 import android.widget.SectionIndexer;
 
 import com.steal.common.Property;
+import com.steal.common.SectionLabelSource;
+import com.steal.common.SectionLabels;
+import com.steal.common.SectionLayout;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FastScroller extends View {
     private static final int TOUCH_IDLE = 0;
     private static final int TOUCH_DOWN = 1;
     private static final int TOUCH_SCROLL = 2;
+    private static final int TOUCH_REVEAL = 3;
+
+    private static final int MEASURE_CACHE_SIZE = 4;
+
+    public static final int DISPATCH_IMMEDIATE = 0;
+    public static final int DISPATCH_FRAME = 1;
+
+    private static final int UNRESOLVED_POSITION = Integer.MIN_VALUE;
+
+    static final int DEFAULT_PREFETCH_INTERVAL = 50;
+    static final int DEFAULT_SELECTION_DURATION = 120;
+    static final int DEFAULT_AUTO_HIDE_DELAY = 1500;
+    private static final int AUTO_HIDE_DURATION = 200;
 
     //region Field
 
@@ -38,94 +63,236 @@ public class FastScroller extends View {
     private float mSpacing = 0;
     private float mTextSize = 0;
     private int mTextColor = 0;
+    private int mHighlightColor = 0;
     private SectionIndexer mIndexer;
     private float mSectionWidth;
     private float mSectionHeight;
     private boolean mSensitiveScroll;
+    private boolean mAtlasEnabled;
+    private int mDecorationRadius = -1;
+    private boolean mWeightedSections;
+    private float[] mSectionWeights;
+    private int mItemCount = -1;
+    private boolean mLabelDecimation;
+    private int mDispatchMode = DISPATCH_IMMEDIATE;
+    private long mSettleDelay;
+    private Executor mPositionExecutor;
+    private boolean mPreviewEnabled;
+    private float mPreviewTextSize;
+    private int mPreviewTextColor;
+    private int mPreviewBackgroundColor;
+    private int mPreviewSize;
+    private int mPreviewMargin;
+    private long mPrefetchLookahead;
+    private boolean mSelectionAnimation;
+    private long mSelectionDuration = DEFAULT_SELECTION_DURATION;
+    private boolean mAutoHide;
+    private long mAutoHideDelay = DEFAULT_AUTO_HIDE_DELAY;
+    private long mPrefetchInterval = DEFAULT_PREFETCH_INTERVAL;
 
     // cache
     private boolean initialized;
     private boolean dirty = true;
-    private String[] sectionCache;
+    private SectionLabels sectionLabels;
     private int sectionLength;
     private boolean sectionCacheDirty;
     private int sectionIndex = -1;
     private Property<String> stringProperty;
     private Property<Paint> paintProperty;
 
+    // style
+    private SectionStyle sectionStyle;
+    private int[] styleAlpha;
+    private float[] styleScale;
+    private Typeface[] styleTypeface;
+    private String[] styleLabel;
+    private float styleMaxScale = 1f;
+    private boolean styleTableDirty = true;
+    private int styleTableIndex = -1;
+    private int styleChangedFrom;
+    private int styleChangedTo;
+
+    // selection animation
+    private Runnable selectionRunnable;
+    private Choreographer.FrameCallback selectionFrameCallback;
+    private boolean selectionAnimating;
+    private float selectionFrom;
+    private float selectionPosition;
+    private long selectionStartTime;
+
+    // auto hide
+    private Runnable hideRunnable;
+    private ViewPropertyAnimatorListenerAdapter hideListener;
+    private boolean hiding;
+    private boolean hidden;
+
     // measure
     private float measuredTextHeight = 0;
     private float measuredSpacing = 0;
     private float measuredSectionWidth;
+    // width of the sections before recreation, until the indexer publishes some
+    private float restoredSectionWidth;
     private float measuredSectionHeight;
+    private int[] measureCacheSpecs;
+    private int[] measureCacheDimensions;
+    private float[] measureCacheSections;
+    private int measureCacheCount;
+    private int measureCacheNext;
+    private SectionLayout sectionLayout;
+    private float[] weightBuffer;
 
     // render
     private TextPaint textPaint;
+    private SectionAtlas atlas;
+    private Rect clipRect;
     private Paint debugPaint;
     private RectF debugRect;
 
+    // preview
+    private SectionPreview preview;
+    private ViewGroup previewHost;
+
     // touch
     private int touchState = TOUCH_IDLE;
     private int downY;
     private int touchSlop;
 
+    // prefetch
+    private VelocityTracker velocityTracker;
+    private List<OnSectionPrefetchListener> prefetchListeners;
+    private long prefetchTime;
+    private int prefetchFrom = -1;
+    private int prefetchTo = -1;
+
     // event
+    private Runnable dispatchRunnable;
+    private Choreographer.FrameCallback dispatchFrameCallback;
+    private boolean dispatchScheduled;
+    private int dispatchedSection = -1;
+    private Runnable settleRunnable;
+    private boolean settlePending;
     private List<OnSectionScrolledListener> listeners;
+    private List<OnSectionSettledListener> settledListeners;
+    private List<OnSectionPositionResolvedListener> positionListeners;
+
+    // position
+    private int[] sectionStarts;
+    private int sectionStartsGeneration = -1;
+    private int[] resolvedPositions;
+    private int sectionGeneration;
+    private int resolveGeneration;
+    private AtomicInteger resolveToken;
+    private PositionResolver positionResolver;
+    private AtomicInteger prepareToken;
+    private Handler mainHandler;
     private List<DecorationItem> decorations;
+    private List<StyleDecorationItem> styleDecorations;
+
+    // metrics, null while disabled
+    private MetricsSink metricsSink;
+    private FastScrollerMetrics metrics;
+    private long metricsTouchTime;
+    private long metricsDispatchTime;
+    private long metricsDecorationTime;
     //endregion
 
     //region Constructor
     public FastScroller(Context context) {
         super(context);
-        initialize(context, null, 0);
+        initialize(context, FastScrollerStyle.obtain(context));
     }
 
     public FastScroller(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        initialize(context, attrs, 0);
+        initialize(context, FastScrollerStyle.obtain(context, attrs, 0));
     }
 
     public FastScroller(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        initialize(context, attrs, defStyleAttr);
+        initialize(context, FastScrollerStyle.obtain(context, attrs, defStyleAttr));
+    }
+
+    // the style is resolved once and shared, no resources are looked up here
+    public FastScroller(Context context, FastScrollerStyle style) {
+        super(context);
+        initialize(context, style);
     }
 
-    private void initialize(Context context, AttributeSet attrs, int defStyleAttrs) {
+    private void initialize(Context context, FastScrollerStyle style) {
         setWillNotDraw(false);
 
         listeners = new ArrayList<>();
+        settledListeners = new ArrayList<>();
+        positionListeners = new ArrayList<>();
+        prefetchListeners = new ArrayList<>();
+        resolveToken = new AtomicInteger();
+        prepareToken = new AtomicInteger();
+        mainHandler = new Handler(Looper.getMainLooper());
+        positionResolver = new PositionResolver();
+        dispatchRunnable = new Runnable() {
+            @Override
+            public void run() {
+                dispatchSection();
+            }
+        };
+
+        selectionRunnable = new Runnable() {
+            @Override
+            public void run() {
+                onSelectionFrame(System.nanoTime());
+            }
+        };
+
+        // Choreographer.FrameCallback only exists from API 16, the classes must not be loaded below
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            dispatchFrameCallback = new DispatchFrameCallback();
+            selectionFrameCallback = new SelectionFrameCallback();
+        }
+
+        hideRunnable = new Runnable() {
+            @Override
+            public void run() {
+                hideScroller();
+            }
+        };
+        hideListener = new ViewPropertyAnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(View view) {
+                // stays VISIBLE in place so a touch reveals it, nothing is drawn while hidden
+                if (hiding) {
+                    hidden = true;
+                    setTranslationX(0f);
+                }
+            }
+        };
+        settleRunnable = new Runnable() {
+            @Override
+            public void run() {
+                dispatchSettledSection();
+            }
+        };
         decorations = new ArrayList<>();
+        styleDecorations = new ArrayList<>();
+        sectionStyle = new SectionStyle();
         stringProperty = new Property<>(null);
         paintProperty = new Property<>(null);
+        clipRect = new Rect();
+        sectionLayout = new SectionLayout();
+        sectionLabels = new SectionLabels();
+
+        measureCacheSpecs = new int[MEASURE_CACHE_SIZE * 2];
+        measureCacheDimensions = new int[MEASURE_CACHE_SIZE * 2];
+        measureCacheSections = new float[MEASURE_CACHE_SIZE * 2];
 
         textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
         textPaint.setAntiAlias(true);
         textPaint.setTextAlign(Paint.Align.CENTER);
         textPaint.setColor(Color.BLACK);
 
-        float defaultTextSize = getResources().getDimension(R.dimen.fast_scroller_text_size);
-        float defaultSpacing = getResources().getDimension(R.dimen.fast_scroller_spacing);
-        int defaultTextColor = ContextCompat.getColor(getContext(), R.color.fast_scroller_text);
-        boolean debug = false;
-
-        if (attrs != null) {
-            TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.FastScroller, defStyleAttrs, 0);
-
-            setTextSize(array.getDimension(R.styleable.FastScroller_fs_textSize, defaultTextSize));
-            setTextColor(array.getColor(R.styleable.FastScroller_fs_textColor, defaultTextColor));
-            setSpacing(array.getDimension(R.styleable.FastScroller_fs_spacing, defaultSpacing));
-            setSectionWidth(array.getDimension(R.styleable.FastScroller_fs_sectionWidth, -1));
-            setSectionHeight(array.getDimension(R.styleable.FastScroller_fs_sectionHeight, -1));
-            setSensitiveScroll(array.getBoolean(R.styleable.FastScroller_fs_sensitiveScroll, false));
-            debug = array.getBoolean(R.styleable.FastScroller_fs_debug, false);
-
-            overrideDefaultAttributes(context, array);
-
-            array.recycle();
-        }
+        applyStyle(style);
 
         // debug
-        if (debug && BuildConfig.DEBUG) {
+        if (style.isDebug() && BuildConfig.DEBUG) {
             debugPaint = new Paint();
             debugPaint.setColor(Color.RED);
             debugPaint.setStrokeWidth((int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, context.getResources().getDisplayMetrics()));
@@ -134,9 +301,6 @@ public class FastScroller extends View {
             debugRect = new RectF();
         }
 
-        // touch
-        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
-
         initialized = true;
 
         // 프리뷰
@@ -145,104 +309,286 @@ public class FastScroller extends View {
         }
     }
 
-    private void overrideDefaultAttributes(Context context, TypedArray array) {
-        // background
+    // assigns every property without measuring, the caller measures once
+    private void applyStyle(FastScrollerStyle style) {
+        mTextSize = style.getTextSize();
+        mSpacing = style.getSpacing();
+        mSectionWidth = style.getSectionWidth();
+        mSectionHeight = style.getSectionHeight();
+        mPreviewMargin = style.getPreviewMargin();
+        textPaint.setTextSize(mTextSize);
+
+        setTextColor(style.getTextColor());
+        setHighlightColor(style.getHighlightColor());
+        setSensitiveScroll(style.isSensitiveScroll());
+        setAtlasEnabled(style.isAtlasEnabled());
+        setDecorationRadius(style.getDecorationRadius());
+        setWeightedSections(style.isWeightedSections());
+        setLabelDecimation(style.isLabelDecimation());
+        setDispatchMode(style.getDispatchMode());
+        setSettleDelay(style.getSettleDelay());
+        setPrefetchLookahead(style.getPrefetchLookahead());
+        setPrefetchInterval(style.getPrefetchInterval());
+        setSelectionAnimation(style.isSelectionAnimation());
+        setSelectionDuration(style.getSelectionDuration());
+        setAutoHideDelay(style.getAutoHideDelay());
+        setAutoHide(style.isAutoHide());
+        setPreviewSize(style.getPreviewSize());
+        setPreviewTextSize(style.getPreviewTextSize());
+        setPreviewTextColor(style.getPreviewTextColor());
+        setPreviewBackgroundColor(style.getPreviewBackgroundColor());
+        setPreviewEnabled(style.isPreviewEnabled());
+
+        if (atlas != null) {
+            atlas.clear();
+        }
 
-        final int resId = array.getResourceId(R.styleable.FastScroller_android_background, R.drawable.background_round);
-        if (resId != 0) {
-            Drawable drawable = AppCompatResources.getDrawable(context, resId);
+        // background
+        Drawable background = style.newBackground(getContext());
 
+        if (background != null) {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
-                setBackground(drawable);
+                setBackground(background);
             } else {
-                setBackgroundDrawable(drawable);
+                setBackgroundDrawable(background);
             }
         }
 
         // padding
+        final boolean reverse = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
 
-        final int defaultPadding = getResources().getDimensionPixelSize(R.dimen.fast_scroller_padding);
-
-        int paddingLeft;
-        int paddingRight;
-        final int paddingTop;
-        final int paddingBottom;
-
-        final int padding = array.getDimensionPixelSize(R.styleable.FastScroller_android_padding, -1);
-
-        if (padding == -1) {
-            final int paddingVertical = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingVertical, -1);
-            final int paddingHorizontal = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingHorizontal, -1);
+        int paddingLeft = style.getPaddingLeft();
+        int paddingRight = style.getPaddingRight();
 
-            if (paddingVertical != -1) {
-                paddingTop = paddingVertical;
-                paddingBottom = paddingVertical;
+        if (style.getPaddingStart() != -1) {
+            if (reverse) {
+                paddingRight = style.getPaddingStart();
             } else {
-                paddingTop = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingTop, defaultPadding);
-                paddingBottom = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingBottom, defaultPadding);
+                paddingLeft = style.getPaddingStart();
             }
+        }
 
-            if (paddingHorizontal != -1) {
-                paddingLeft = paddingHorizontal;
-                paddingRight = paddingHorizontal;
+        if (style.getPaddingEnd() != -1) {
+            if (reverse) {
+                paddingLeft = style.getPaddingEnd();
             } else {
-                final boolean reverse = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
-
-                paddingLeft = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingLeft, defaultPadding);
-                paddingRight = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingRight, defaultPadding);
-                final int paddingStart = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingStart, -1);
-                final int paddingEnd = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingEnd, -1);
-
-                if (paddingStart != -1) {
-                    if (reverse) {
-                        paddingRight = paddingStart;
-                    } else {
-                        paddingLeft = paddingStart;
-                    }
-                }
-
-                if (paddingEnd != -1) {
-                    if (reverse) {
-                        paddingLeft = paddingEnd;
-                    } else {
-                        paddingRight = paddingEnd;
-                    }
-                }
+                paddingRight = style.getPaddingEnd();
             }
-        } else {
-            paddingLeft = padding;
-            paddingTop = padding;
-            paddingRight = padding;
-            paddingBottom = padding;
         }
 
-        setPadding(paddingLeft, paddingTop, paddingRight, paddingBottom);
+        setPadding(paddingLeft, style.getPaddingTop(), paddingRight, style.getPaddingBottom());
+
+        // touch
+        touchSlop = style.getTouchSlop();
+
+        invalidateSectionWidths();
+        dirty = true;
     }
     //endregion
 
     //region Property
     public void invalidateSectionIndexer() {
-        if (mIndexer != null && mIndexer.getSections() != null) {
-            Object[] sections = mIndexer.getSections();
-            sectionLength = sections.length;
-            sectionCache = new String[sections.length];
+        updateSections(true);
+    }
 
-            for (int i = 0; i < sectionLength; i++) {
-                sectionCache[i] = String.valueOf(sections[i]);
-            }
+    // diffs the sections of the current indexer against the cached ones,
+    // unchanged sections keep their strings and measured widths
+    public void notifySectionsChanged() {
+        updateSections(false);
+    }
+
+    private void updateSections(boolean reset) {
+        int oldLength = sectionLength;
+        boolean changed;
+
+        if (mIndexer instanceof SectionLabelSource) {
+            changed = sectionLabels.update((SectionLabelSource) mIndexer, reset);
         } else {
-            sectionLength = 0;
-            sectionCache = null;
+            changed = sectionLabels.update(mIndexer != null ? mIndexer.getSections() : null, reset);
+        }
+
+        applySections(oldLength, changed, reset);
+    }
+
+    private void applySections(int oldLength, boolean changed, boolean reset) {
+        sectionLength = sectionLabels.getLength();
+        sectionLayout.setCount(sectionLength);
+
+        if (reset || sectionIndex >= sectionLength) {
+            sectionIndex = -1;
+            dispatchedSection = -1;
+            cancelSectionDispatch();
+            cancelSelectionAnimation();
+        }
+
+        // equal labels can still start at other positions and weigh differently after an item change
+        invalidateResolvedPositions();
+        updateSectionWeights();
+
+        if (!changed) {
+            invalidate();
+            return;
         }
 
         sectionCacheDirty = true;
-        sectionIndex = -1;
+        styleTableDirty = true;
+
+        if (atlas != null) {
+            atlas.setSections(sectionLabels.getArray(), getRasterizedLength());
+        }
+
+        if (preview != null) {
+            preview.setSections(sectionLabels.getArray(), getRasterizedLength());
+            updatePreview();
+        }
+
+        float oldSectionWidth = measuredSectionWidth;
 
         invalidateMeasureSection();
-        requestLayout();
+
+        if (reset || dirty || sectionLength != oldLength || measuredSectionWidth != oldSectionWidth) {
+            requestLayout();
+        }
+
+        invalidate();
+    }
+
+    // lazy labels are never rasterized, every section would have to be fetched
+    private int getRasterizedLength() {
+        return sectionLabels.isLazy() ? 0 : sectionLength;
+    }
+
+    // highlights the section of an adapter position while the list scrolls by itself,
+    // ignored while the index is scrolled and never raised to the listeners
+    public void setCurrentPosition(int position) {
+        if (touchState == TOUCH_SCROLL || sectionLength == 0 || mIndexer == null) {
+            return;
+        }
+
+        int section = findSectionForPosition(position);
+
+        if (section == sectionIndex) {
+            return;
+        }
+
+        int oldIndex = sectionIndex;
+
+        sectionIndex = section;
+        // scrubbing back to the last dispatched section must scroll the list again
+        dispatchedSection = -1;
+
+        if (mHighlightColor == 0) {
+            return;
+        }
+
+        if (oldIndex >= 0) {
+            invalidateSectionRange(oldIndex, oldIndex);
+        }
+
+        invalidateSectionRange(section, section);
+    }
+
+    // the section containing the position is usually the current one or a neighbour of it while the list scrolls
+    private int findSectionForPosition(int position) {
+        ensureSectionStarts();
+
+        int last = sectionLength - 1;
+        int guess = Math.max(0, Math.min(last, sectionIndex));
+
+        for (int section = Math.max(0, guess - 1); section <= Math.min(last, guess + 1); section++) {
+            if (sectionStarts[section] <= position && (section == last || position < sectionStarts[section + 1])) {
+                return section;
+            }
+        }
+
+        int low = 0;
+        int high = last;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+
+            if (sectionStarts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    // start positions of every section, built once per section change
+    private void ensureSectionStarts() {
+        if (sectionStartsGeneration == sectionGeneration) {
+            return;
+        }
+
+        if (sectionStarts == null || sectionStarts.length < sectionLength) {
+            sectionStarts = new int[sectionLength];
+        }
+
+        int previous = 0;
+
+        for (int i = 0; i < sectionLength; i++) {
+            // kept ascending for the binary search
+            previous = Math.max(previous, mIndexer.getPositionForSection(i));
+            sectionStarts[i] = previous;
+        }
+
+        sectionStartsGeneration = sectionGeneration;
+    }
+
+    private void invalidateResolvedPositions() {
+        sectionGeneration++;
+        resolveToken.set(++resolveGeneration);
+
+        if (resolvedPositions == null || resolvedPositions.length < sectionLength) {
+            resolvedPositions = new int[sectionLength];
+        }
+
+        for (int i = 0; i < sectionLength; i++) {
+            resolvedPositions[i] = UNRESOLVED_POSITION;
+        }
+    }
+
+    private void updateSectionWeights() {
+        if (mSectionWeights != null && mSectionWeights.length == sectionLength) {
+            sectionLayout.setWeights(mSectionWeights, sectionLength);
+        } else if (mWeightedSections && mIndexer != null && sectionLength > 0) {
+            if (weightBuffer == null || weightBuffer.length < sectionLength) {
+                weightBuffer = new float[sectionLength];
+            }
+
+            int previous = Math.max(0, mIndexer.getPositionForSection(0));
+            float total = 0;
+
+            for (int i = 1; i < sectionLength; i++) {
+                int position = Math.max(previous, mIndexer.getPositionForSection(i));
+
+                weightBuffer[i - 1] = position - previous;
+                total += position - previous;
+                previous = position;
+            }
+
+            // the indexer doesn't know where the last section ends
+            if (mItemCount > previous) {
+                weightBuffer[sectionLength - 1] = mItemCount - previous;
+            } else {
+                weightBuffer[sectionLength - 1] = sectionLength > 1 ? total / (sectionLength - 1) : 1;
+            }
+
+            sectionLayout.setWeights(weightBuffer, sectionLength);
+        } else {
+            sectionLayout.setWeights(null, 0);
+        }
+
+        applySectionLayout();
     }
 
     public void setSectionIndexer(SectionIndexer indexer) {
+        // supersedes a preparation in flight
+        prepareToken.incrementAndGet();
+
         if (mIndexer == indexer) {
             return;
         }
@@ -252,10 +598,75 @@ public class FastScroller extends View {
         invalidateSectionIndexer();
     }
 
+    // callable from any thread, the labels are stringified and measured on the executor
+    // and the indexer is swapped in on the main thread in one step
+    public void setSectionIndexer(final SectionIndexer indexer, Executor executor) {
+        final int token = prepareToken.incrementAndGet();
+        final float textSize = mTextSize;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (prepareToken.get() != token) {
+                    return;
+                }
+
+                final SectionSnapshot snapshot = SectionSnapshot.prepare(indexer, textSize);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        publishSnapshot(snapshot, token);
+                    }
+                });
+            }
+        });
+    }
+
+    private void publishSnapshot(SectionSnapshot snapshot, int token) {
+        if (prepareToken.get() != token) {
+            return;
+        }
+
+        mIndexer = snapshot.indexer;
+
+        if (!snapshot.isPrepared()) {
+            invalidateSectionIndexer();
+            return;
+        }
+
+        int oldLength = sectionLength;
+
+        sectionLabels.set(snapshot.labels, snapshot.widths);
+
+        // the text size changed while preparing
+        if (snapshot.textSize != mTextSize) {
+            sectionLabels.invalidateWidths();
+        }
+
+        applySections(oldLength, true, true);
+    }
+
+    // applies every property of the style with a single measure pass
+    public void setStyle(FastScrollerStyle style) {
+        applyStyle(style);
+
+        invalidateMeasureSection();
+        requestLayout();
+        invalidate();
+    }
+
     public void setTextSize(float textSize) {
         if (mTextSize != textSize) {
             mTextSize = textSize;
             textPaint.setTextSize(textSize);
+
+            if (atlas != null) {
+                atlas.clear();
+            }
+
+            invalidateSectionWidths();
+
             invalidateMeasureSection();
             requestLayout();
         }
@@ -276,6 +687,18 @@ public class FastScroller extends View {
         return textPaint.getColor();
     }
 
+    public int getHighlightColor() {
+        return mHighlightColor;
+    }
+
+    // color of the current section while the index isn't scrolled, 0 to draw it like the others
+    public void setHighlightColor(@ColorInt int highlightColor) {
+        if (mHighlightColor != highlightColor) {
+            mHighlightColor = highlightColor;
+            invalidate();
+        }
+    }
+
     public void setSpacing(float spacing) {
         if (mSpacing != spacing) {
             mSpacing = spacing;
@@ -293,6 +716,7 @@ public class FastScroller extends View {
 
     public void setSectionWidth(float sectionWidth) {
         mSectionWidth = sectionWidth;
+        sectionCacheDirty = true;
         invalidateMeasureSection();
         requestLayout();
     }
@@ -318,257 +742,1402 @@ public class FastScroller extends View {
         mSensitiveScroll = value;
     }
 
-    //endregion
-
-    //region Measured Property
-    public float getMeasuredTextHeight() {
-        return measuredTextHeight;
+    public int getDecorationRadius() {
+        return mDecorationRadius;
     }
 
-    public float getMeasuredSpacing() {
-        return measuredSpacing;
+    // distance from the selected section beyond which decorations no longer change the rendering,
+    // negative if decorations can affect every section
+    public void setDecorationRadius(int radius) {
+        mDecorationRadius = radius;
     }
 
-    public float getMeasuredSectionWidth() {
-        return measuredSectionWidth;
+    public boolean isWeightedSections() {
+        return mWeightedSections;
     }
 
-    public float getMeasuredSectionHeight() {
-        return measuredSectionHeight;
+    // row heights proportional to the item count of each section, taken from the indexer positions
+    public void setWeightedSections(boolean value) {
+        if (mWeightedSections != value) {
+            mWeightedSections = value;
+            updateSectionWeights();
+            invalidate();
+        }
     }
-    //endregion
 
-    //region Touch (Scroll)
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        int y = (int) event.getY();
+    public int getItemCount() {
+        return mItemCount;
+    }
 
-        if (touchState != TOUCH_IDLE && sectionLength == 0) {
-            touchState = TOUCH_IDLE;
+    // total item count, used to weight the last section
+    public void setItemCount(int itemCount) {
+        if (mItemCount != itemCount) {
+            mItemCount = itemCount;
+            updateSectionWeights();
             invalidate();
-            return true;
         }
+    }
 
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                downY = y;
+    public float[] getSectionWeights() {
+        return mSectionWeights;
+    }
 
-                if (mSensitiveScroll) {
-                    touchState = TOUCH_SCROLL;
-                } else {
-                    touchState = TOUCH_DOWN;
-                    break;
-                }
+    // explicit weights of each section, null to clear
+    public void setSectionWeights(float[] weights) {
+        mSectionWeights = weights != null ? weights.clone() : null;
+        updateSectionWeights();
+        invalidate();
+    }
 
-            case MotionEvent.ACTION_MOVE:
-                if (touchState == TOUCH_DOWN) {
-                    if (Math.abs(downY - y) > touchSlop) {
-                        touchState = TOUCH_SCROLL;
-                    }
-                } else {
-                    float halfSpacing = measuredSpacing / 2;
-                    float groupHeight = measuredSectionHeight + measuredSpacing;
+    public boolean isLabelDecimation() {
+        return mLabelDecimation;
+    }
 
-                    y = (int) Math.min(Math.max(y - getPaddingTop(), halfSpacing), sectionLength * groupHeight - halfSpacing);
+    // draws only the labels that fit when the sections are shrunk below the text height,
+    // touch still resolves every section
+    public void setLabelDecimation(boolean value) {
+        if (mLabelDecimation != value) {
+            mLabelDecimation = value;
+            updateLabelSlots();
+            invalidate();
+        }
+    }
+
+    public int getDispatchMode() {
+        return mDispatchMode;
+    }
 
-                    int index = (int) Math.floor(y / groupHeight);
+    // DISPATCH_FRAME delivers at most one section change per frame, the latest one
+    public void setDispatchMode(int mode) {
+        if (mDispatchMode != mode) {
+            flushSectionDispatch();
+            mDispatchMode = mode;
+        }
+    }
 
-                    if (index == sectionIndex) {
-                        break;
-                    }
+    public long getSettleDelay() {
+        return mSettleDelay;
+    }
 
-                    y -= index * groupHeight;
+    // delay in milliseconds after which a section the finger dwells on is reported as settled, 0 to disable
+    public void setSettleDelay(long delay) {
+        mSettleDelay = Math.max(0, delay);
+    }
 
-                    if (halfSpacing <= y && y <= groupHeight - halfSpacing) {
-                        sectionIndex = index;
-                        onSectionChanged(index);
-                        raiseOnSectionScrolledListener(index);
-                        invalidate();
-                    }
-                }
-                break;
+    public boolean isSelectionAnimation() {
+        return mSelectionAnimation;
+    }
 
-            case MotionEvent.ACTION_UP:
-            case MotionEvent.ACTION_CANCEL:
-                touchState = TOUCH_IDLE;
-                invalidate();
-                break;
+    // style decorations follow the selection smoothly instead of jumping between sections
+    public void setSelectionAnimation(boolean value) {
+        mSelectionAnimation = value;
+
+        if (!value) {
+            cancelSelectionAnimation();
         }
+    }
 
-        return true;
+    public long getSelectionDuration() {
+        return mSelectionDuration;
     }
-    //endregion
 
-    //region Invalidate
-    @Override
-    public void invalidate() {
-        if (initialized) {
-            super.invalidate();
-        }
+    public void setSelectionDuration(long duration) {
+        mSelectionDuration = Math.max(0, duration);
     }
 
-    @Override
-    public void requestLayout() {
-        if (initialized) {
-            super.requestLayout();
-        }
+    public boolean isAutoHide() {
+        return mAutoHide;
     }
 
-    private void invalidateMeasureSection() {
-        if (initialized) {
-            measureSection();
+    // fades and slides the scroller out after mAutoHideDelay ms without touch or notifyListScrolled,
+    // the view keeps its place with alpha 0 while hidden, touching it reveals it
+    public void setAutoHide(boolean value) {
+        mAutoHide = value;
+        removeCallbacks(hideRunnable);
+
+        if (value) {
+            scheduleAutoHide();
+        } else if (hiding) {
+            ViewCompat.animate(this).setListener(null).cancel();
+
+            hiding = false;
+            hidden = false;
+            setAlpha(1f);
+            setTranslationX(0f);
+            invalidate();
         }
     }
-    //endregion
+
+    public long getAutoHideDelay() {
+        return mAutoHideDelay;
+    }
+
+    public void setAutoHideDelay(long delay) {
+        mAutoHideDelay = Math.max(0, delay);
+    }
+
+    // reveals the scroller while the list scrolls, the hide is rescheduled
+    public void notifyListScrolled() {
+        if (!mAutoHide) {
+            return;
+        }
+
+        revealScroller();
+        scheduleAutoHide();
+    }
+
+    public long getPrefetchLookahead() {
+        return mPrefetchLookahead;
+    }
+
+    // how far ahead (ms) the landing section is predicted from the scrub velocity, 0 disables the prefetch hints
+    public void setPrefetchLookahead(long lookahead) {
+        mPrefetchLookahead = Math.max(0, lookahead);
+
+        if (mPrefetchLookahead == 0) {
+            cancelPrefetch();
+        }
+    }
+
+    public long getPrefetchInterval() {
+        return mPrefetchInterval;
+    }
+
+    // minimum time (ms) between two prefetch hints
+    public void setPrefetchInterval(long interval) {
+        mPrefetchInterval = Math.max(0, interval);
+    }
+
+    public Executor getPositionExecutor() {
+        return mPositionExecutor;
+    }
+
+    // resolves SectionIndexer.getPositionForSection of the dispatched sections on the executor,
+    // null to disable
+    public void setPositionExecutor(Executor executor) {
+        mPositionExecutor = executor;
+        resolveToken.set(++resolveGeneration);
+    }
+
+    public boolean isAtlasEnabled() {
+        return mAtlasEnabled;
+    }
+
+    public void setAtlasEnabled(boolean value) {
+        if (mAtlasEnabled == value) {
+            return;
+        }
+
+        mAtlasEnabled = value;
+
+        if (value) {
+            atlas = new SectionAtlas();
+            atlas.setSections(sectionLabels.getArray(), getRasterizedLength());
+        } else {
+            atlas.clear();
+            atlas = null;
+        }
+
+        invalidate();
+    }
+
+    public boolean isPreviewEnabled() {
+        return mPreviewEnabled;
+    }
+
+    // shows the current section in a bubble next to the scroller while scrolling, API 18+
+    public void setPreviewEnabled(boolean value) {
+        if (mPreviewEnabled == value) {
+            return;
+        }
+
+        mPreviewEnabled = value;
+
+        if (value) {
+            preview = new SectionPreview();
+            preview.setSize(mPreviewSize);
+            preview.setTextSize(mPreviewTextSize);
+            preview.setTextColor(mPreviewTextColor);
+            preview.setBackgroundColor(mPreviewBackgroundColor);
+            preview.setSections(sectionLabels.getArray(), getRasterizedLength());
+
+            if (ViewCompat.isAttachedToWindow(this)) {
+                attachPreview();
+            }
+        } else {
+            detachPreview();
+            preview.clear();
+            preview = null;
+        }
+    }
+
+    public int getPreviewSize() {
+        return mPreviewSize;
+    }
+
+    public void setPreviewSize(float size) {
+        mPreviewSize = (int) size;
+
+        if (preview != null) {
+            preview.hide();
+            preview.setSize(mPreviewSize);
+            updatePreview();
+        }
+    }
+
+    public float getPreviewTextSize() {
+        return mPreviewTextSize;
+    }
+
+    public void setPreviewTextSize(float textSize) {
+        mPreviewTextSize = textSize;
+
+        if (preview != null) {
+            preview.setTextSize(textSize);
+        }
+    }
+
+    public int getPreviewTextColor() {
+        return mPreviewTextColor;
+    }
+
+    public void setPreviewTextColor(@ColorInt int color) {
+        mPreviewTextColor = color;
+
+        if (preview != null) {
+            preview.setTextColor(color);
+        }
+    }
+
+    public int getPreviewBackgroundColor() {
+        return mPreviewBackgroundColor;
+    }
+
+    public void setPreviewBackgroundColor(@ColorInt int color) {
+        mPreviewBackgroundColor = color;
+
+        if (preview != null) {
+            preview.setBackgroundColor(color);
+        }
+    }
+    //endregion
+
+    //region Measured Property
+    public float getMeasuredTextHeight() {
+        return measuredTextHeight;
+    }
+
+    public float getMeasuredSpacing() {
+        return measuredSpacing;
+    }
+
+    public float getMeasuredSectionWidth() {
+        return measuredSectionWidth;
+    }
+
+    public float getMeasuredSectionHeight() {
+        return measuredSectionHeight;
+    }
+    //endregion
+
+    //region Touch (Scroll)
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (metrics == null) {
+            return handleTouchEvent(event);
+        }
+
+        TraceCompat.beginSection("FastScroller#onTouchEvent");
+        metricsTouchTime = System.nanoTime();
+
+        boolean handled = handleTouchEvent(event);
+
+        TraceCompat.endSection();
+
+        int action = event.getAction();
+
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            flushMetrics();
+        }
+
+        return handled;
+    }
+
+    private boolean handleTouchEvent(MotionEvent event) {
+        int y = (int) event.getY();
+
+        if (touchState != TOUCH_IDLE && sectionLength == 0) {
+            touchState = TOUCH_IDLE;
+            invalidate();
+            updatePreview();
+            cancelPrefetch();
+            scheduleAutoHide();
+            return true;
+        }
+
+        // the gesture touching a hidden scroller only reveals it, even with fs_sensitiveScroll
+        if (hidden && event.getAction() == MotionEvent.ACTION_DOWN) {
+            touchState = TOUCH_REVEAL;
+            revealScroller();
+            return true;
+        }
+
+        if (touchState == TOUCH_REVEAL) {
+            int action = event.getAction();
+
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                touchState = TOUCH_IDLE;
+                scheduleAutoHide();
+            }
+            return true;
+        }
+
+        trackVelocity(event);
+
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                downY = y;
+                revealScroller();
+
+                if (mSensitiveScroll) {
+                    touchState = TOUCH_SCROLL;
+                    invalidate();
+                    updatePreview();
+                } else {
+                    touchState = TOUCH_DOWN;
+                    break;
+                }
+
+            case MotionEvent.ACTION_MOVE:
+                if (touchState == TOUCH_DOWN) {
+                    if (Math.abs(downY - y) > touchSlop) {
+                        touchState = TOUCH_SCROLL;
+                        invalidate();
+                        updatePreview();
+                    }
+                } else {
+                    int oldIndex = sectionIndex;
+
+                    // historical samples are only consumed when the dispatch is coalesced,
+                    // otherwise every crossing would reach the listeners
+                    if (mDispatchMode == DISPATCH_FRAME) {
+                        for (int h = 0; h < event.getHistorySize(); h++) {
+                            trackSectionAt(event.getHistoricalY(h));
+                        }
+                    }
+
+                    trackSectionAt(y);
+
+                    if (oldIndex != sectionIndex) {
+                        invalidateSectionChange(oldIndex, sectionIndex);
+                        updatePreview();
+                    }
+
+                    updatePrefetch(event);
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+                touchState = TOUCH_IDLE;
+                flushSectionDispatch();
+
+                if (settlePending) {
+                    removeCallbacks(settleRunnable);
+                    dispatchSettledSection();
+                }
+
+                invalidate();
+                updatePreview();
+                cancelPrefetch();
+                cancelSelectionAnimation();
+                scheduleAutoHide();
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                touchState = TOUCH_IDLE;
+                flushSectionDispatch();
+                cancelSettle();
+                invalidate();
+                updatePreview();
+                cancelPrefetch();
+                cancelSelectionAnimation();
+                scheduleAutoHide();
+                break;
+        }
+
+        return true;
+    }
+
+    private void trackSectionAt(float y) {
+        int index = findSectionAt(y);
+
+        if (index == -1 || index == sectionIndex) {
+            return;
+        }
+
+        sectionIndex = index;
+        onSectionChanged(index);
+
+        if (metrics != null && metricsDispatchTime == 0) {
+            metricsDispatchTime = metricsTouchTime;
+        }
+
+        if (mDispatchMode == DISPATCH_FRAME) {
+            scheduleSectionDispatch();
+        } else {
+            dispatchedSection = index;
+            raiseOnSectionScrolledListener(index);
+        }
+
+        scheduleSettle();
+    }
+
+    private void trackVelocity(MotionEvent event) {
+        if (mPrefetchLookahead == 0 || prefetchListeners.isEmpty()) {
+            return;
+        }
+
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        } else if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            velocityTracker.clear();
+        }
+
+        velocityTracker.addMovement(event);
+    }
+
+    // the sections between the current one and the one predicted mPrefetchLookahead ms ahead, rate limited
+    private void updatePrefetch(MotionEvent event) {
+        if (velocityTracker == null || sectionIndex < 0) {
+            return;
+        }
+
+        long time = event.getEventTime();
+
+        if (prefetchFrom != -1 && time - prefetchTime < mPrefetchInterval) {
+            return;
+        }
+
+        velocityTracker.computeCurrentVelocity(1000);
+
+        float predictedY = event.getY() - getPaddingTop() + velocityTracker.getYVelocity() * mPrefetchLookahead / 1000f;
+        int predicted = sectionLayout.findIndex(predictedY);
+        int from = Math.min(sectionIndex, predicted);
+        int to = Math.max(sectionIndex, predicted);
+
+        if (from == prefetchFrom && to == prefetchTo) {
+            return;
+        }
+
+        // the previous prediction is superseded
+        if (prefetchFrom != -1) {
+            raiseOnSectionPrefetchCancelledListener(prefetchFrom, prefetchTo);
+        }
+
+        prefetchTime = time;
+        prefetchFrom = from;
+        prefetchTo = to;
+
+        raiseOnSectionPrefetchListener(from, to);
+    }
+
+    private void cancelPrefetch() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+
+        if (prefetchFrom != -1) {
+            int from = prefetchFrom;
+            int to = prefetchTo;
+
+            prefetchFrom = -1;
+            prefetchTo = -1;
+
+            raiseOnSectionPrefetchCancelledListener(from, to);
+        }
+    }
+
+    // section under y in view coordinates, -1 if y is on the spacing between sections
+    private int findSectionAt(float y) {
+        return sectionLayout.findSection(y - getPaddingTop());
+    }
+    //endregion
+
+    //region Invalidate
+    @Override
+    public void invalidate() {
+        if (initialized) {
+            super.invalidate();
+        }
+    }
+
+    @Override
+    public void requestLayout() {
+        measureCacheCount = 0;
+
+        if (initialized) {
+            super.requestLayout();
+        }
+    }
+
+    private void invalidateSectionChange(int oldIndex, int newIndex) {
+        if (decorations.isEmpty() && !styleDecorations.isEmpty() && touchState == TOUCH_SCROLL) {
+            boolean full = styleTableDirty || oldIndex < 0;
+
+            if (mSelectionAnimation && mSelectionDuration > 0 && !full) {
+                startSelectionAnimation(oldIndex);
+                return;
+            }
+
+            updateStyleTable();
+
+            if (full) {
+                invalidate();
+            } else if (styleChangedFrom <= styleChangedTo) {
+                invalidateSectionRange(styleChangedFrom, styleChangedTo);
+            }
+            return;
+        }
+
+        int radius = decorations.isEmpty() ? 0 : mDecorationRadius;
+
+        if (oldIndex < 0 || radius < 0) {
+            invalidate();
+            return;
+        }
+
+        invalidateSectionRange(Math.min(oldIndex, newIndex) - radius, Math.max(oldIndex, newIndex) + radius);
+    }
+
+    private void scheduleAutoHide() {
+        removeCallbacks(hideRunnable);
+
+        if (mAutoHide && touchState == TOUCH_IDLE) {
+            postDelayed(hideRunnable, mAutoHideDelay);
+        }
+    }
+
+    // only the view properties are animated, the labels are not redrawn
+    private void hideScroller() {
+        if (!mAutoHide || touchState != TOUCH_IDLE || hiding) {
+            return;
+        }
+
+        float translation = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL ? -getWidth() : getWidth();
+
+        hiding = true;
+        ViewCompat.animate(this)
+                .alpha(0f)
+                .translationX(translation)
+                .setDuration(AUTO_HIDE_DURATION)
+                .setListener(hideListener)
+                .start();
+    }
+
+    private void revealScroller() {
+        removeCallbacks(hideRunnable);
+
+        if (!hiding) {
+            return;
+        }
+
+        hiding = false;
+
+        if (hidden) {
+            hidden = false;
+            invalidate();
+        }
+
+        // fades in place when fully hidden, slides back when caught while hiding
+        ViewCompat.animate(this)
+                .alpha(1f)
+                .translationX(0f)
+                .setDuration(AUTO_HIDE_DURATION)
+                .setListener(null)
+                .start();
+    }
+
+    private void startSelectionAnimation(int oldIndex) {
+        // a new target continues from where the running animation is
+        selectionFrom = selectionAnimating ? selectionPosition : oldIndex;
+        selectionPosition = selectionFrom;
+        selectionStartTime = System.nanoTime();
+
+        if (!selectionAnimating) {
+            selectionAnimating = true;
+            postSelectionFrame();
+        }
+    }
+
+    private void postSelectionFrame() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().postFrameCallback(selectionFrameCallback);
+        } else {
+            ViewCompat.postOnAnimation(this, selectionRunnable);
+        }
+    }
+
+    private void cancelSelectionAnimation() {
+        if (!selectionAnimating) {
+            return;
+        }
+
+        selectionAnimating = false;
+        // the table holds the interpolated styles
+        styleTableDirty = true;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().removeFrameCallback(selectionFrameCallback);
+        } else {
+            removeCallbacks(selectionRunnable);
+        }
+    }
+
+    // one step of the selection clock, only the rows whose style changed are redrawn
+    private void onSelectionFrame(long frameTimeNanos) {
+        if (!selectionAnimating) {
+            return;
+        }
+
+        float progress = Math.max(0f, Math.min(1f, (frameTimeNanos - selectionStartTime) / (mSelectionDuration * 1000000f)));
+        float interpolated = 1f - (1f - progress) * (1f - progress);
+
+        selectionPosition = selectionFrom + (sectionIndex - selectionFrom) * interpolated;
+
+        if (progress >= 1f) {
+            selectionAnimating = false;
+        }
+
+        updateStyleTable();
+
+        if (styleChangedFrom <= styleChangedTo) {
+            invalidateSectionRange(styleChangedFrom, styleChangedTo);
+        }
+
+        if (selectionAnimating) {
+            postSelectionFrame();
+        }
+    }
+
+    private void invalidateSectionRange(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(sectionLength - 1, to);
+
+        float overflow = getGlyphOverflow();
+
+        int top = (int) Math.floor(getPaddingTop() + getSectionTop(from) - overflow);
+        int bottom = (int) Math.ceil(getPaddingTop() + getSectionTop(to + 1) + overflow);
+
+        invalidateRows(top, bottom);
+    }
+
+    // the dirty rect only narrows the redraw of software layers before 21, hardware rendering redraws the whole view anyway
+    @SuppressWarnings("deprecation")
+    private void invalidateRows(int top, int bottom) {
+        if (!initialized) {
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && isHardwareAccelerated()) {
+            super.invalidate();
+        } else {
+            super.invalidate(0, top, getWidth(), bottom);
+        }
+    }
+
+    // glyphs are allowed to overflow into the neighbour rows when the sections are shrunk or scaled up
+    private float getGlyphOverflow() {
+        return Math.max(0, measuredTextHeight * Math.max(1f, styleMaxScale) - measuredSectionHeight);
+    }
+
+    private void invalidateSectionWidths() {
+        sectionLabels.invalidateWidths();
+
+        sectionCacheDirty = true;
+    }
+
+    private void invalidateMeasureSection() {
+        if (initialized) {
+            measureSection();
+        }
+    }
+    //endregion
 
     //region Measure
     private void measureSection() {
+        if (metrics == null) {
+            measureSectionWidths();
+            return;
+        }
+
+        TraceCompat.beginSection("FastScroller#measureSection");
+        measureSectionWidths();
+        TraceCompat.endSection();
+    }
+
+    private void measureSectionWidths() {
         dirty = false;
 
-        measuredTextHeight = -textPaint.descent() - textPaint.ascent();
-        measuredSectionWidth = Math.max(mSectionWidth, 0);
+        textPaint.setTextSize(mTextSize);
+        textPaint.setTypeface(Typeface.DEFAULT);
+
+        measuredTextHeight = -textPaint.descent() - textPaint.ascent();
+
+        if (mSectionWidth >= 0) {
+            measuredSectionWidth = mSectionWidth;
+            return;
+        }
+
+        if (sectionLabels.isLazy()) {
+            if (sectionCacheDirty) {
+                sectionCacheDirty = false;
+                measuredSectionWidth = measureLazySections();
+            }
+            return;
+        }
+
+        if (sectionCacheDirty) {
+            sectionCacheDirty = false;
+
+            int measured = 0;
+
+            for (int i = 0; i < sectionLength; i++) {
+                if (!sectionLabels.isMeasured(i)) {
+                    sectionLabels.setWidth(i, TextMeasureCache.getInstance().measureText(textPaint, sectionLabels.get(i)));
+                    measured++;
+                }
+            }
+
+            if (metrics != null) {
+                metrics.onSectionMeasure(measured);
+            }
+        }
+
+        if (sectionLength == 0) {
+            measuredSectionWidth = restoredSectionWidth;
+            return;
+        }
+
+        restoredSectionWidth = 0;
+        measuredSectionWidth = 0;
+
+        for (int i = 0; i < sectionLength; i++) {
+            measuredSectionWidth = Math.max(measuredSectionWidth, sectionLabels.getWidth(i));
+        }
+    }
+
+    // only the widest label when the source declares one, otherwise every label once without keeping them
+    private float measureLazySections() {
+        SectionLabelSource source = sectionLabels.getSource();
+        String widest = source.getWidestLabel();
+
+        if (widest != null) {
+            if (metrics != null) {
+                metrics.onSectionMeasure(1);
+            }
+
+            return TextMeasureCache.getInstance().measureText(textPaint, widest);
+        }
+
+        float width = 0;
+
+        for (int i = 0; i < sectionLength; i++) {
+            width = Math.max(width, textPaint.measureText(source.getSectionLabel(i)));
+        }
+
+        if (metrics != null) {
+            metrics.onSectionMeasure(sectionLength);
+        }
+
+        return width;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (metrics == null) {
+            measureScroller(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+
+        TraceCompat.beginSection("FastScroller#onMeasure");
+        metrics.onMeasure();
+        measureScroller(widthMeasureSpec, heightMeasureSpec);
+        TraceCompat.endSection();
+    }
+
+    private void measureScroller(int widthMeasureSpec, int heightMeasureSpec) {
+        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+
+        if (dirty) {
+            measureSection();
+        }
+
+        for (int i = 0; i < measureCacheCount; i++) {
+            if (measureCacheSpecs[i * 2] == widthMeasureSpec && measureCacheSpecs[i * 2 + 1] == heightMeasureSpec) {
+                measuredSectionHeight = measureCacheSections[i * 2];
+                measuredSpacing = measureCacheSections[i * 2 + 1];
+                applySectionLayout();
+                setMeasuredDimension(measureCacheDimensions[i * 2], measureCacheDimensions[i * 2 + 1]);
+                return;
+            }
+        }
+
+        if (widthMode != MeasureSpec.EXACTLY) {
+            int measuredWidth = (int) (measuredSectionWidth + getPaddingLeft() + getPaddingRight());
+
+            if (widthMode == MeasureSpec.AT_MOST) {
+                width = Math.min(measuredWidth, width);
+            } else {
+                width = measuredWidth;
+            }
+        }
+
+        measuredSpacing = mSpacing;
+        measuredSectionHeight = mSectionHeight == -1 ? measuredTextHeight : mSectionHeight;
+
+        boolean measure = false;
+
+        if (heightMode != MeasureSpec.EXACTLY) {
+            float desiredHeight = (measuredSectionHeight + measuredSpacing) * sectionLength;
+            int measuredHeight = (int) (desiredHeight + getPaddingTop() + getPaddingBottom());
+
+            if (heightMode == MeasureSpec.AT_MOST) {
+                measure = measuredHeight > height;
+                height = Math.min(measuredHeight, height);
+            } else {
+                height = measuredHeight;
+            }
+        } else {
+            measure = true;
+        }
+
+        if (measure && sectionLength > 0) {
+            int contentHeight = Math.max(0, height - getPaddingTop() - getPaddingBottom());
+
+            sectionLayout.fit(contentHeight, mSectionHeight, mSpacing, measuredTextHeight);
+            measuredSectionHeight = sectionLayout.getFittedSectionHeight();
+            measuredSpacing = sectionLayout.getFittedSpacing();
+        }
+
+        applySectionLayout();
+
+        int slot = measureCacheNext;
+
+        measureCacheSpecs[slot * 2] = widthMeasureSpec;
+        measureCacheSpecs[slot * 2 + 1] = heightMeasureSpec;
+        measureCacheDimensions[slot * 2] = width;
+        measureCacheDimensions[slot * 2 + 1] = height;
+        measureCacheSections[slot * 2] = measuredSectionHeight;
+        measureCacheSections[slot * 2 + 1] = measuredSpacing;
+        measureCacheNext = (slot + 1) % MEASURE_CACHE_SIZE;
+        measureCacheCount = Math.min(measureCacheCount + 1, MEASURE_CACHE_SIZE);
+
+        setMeasuredDimension(width, height);
+    }
+
+    private void applySectionLayout() {
+        // weighted rows keep room for their label
+        sectionLayout.setMetrics(measuredSectionHeight, measuredSpacing, mSectionHeight >= 0 ? mSectionHeight : measuredTextHeight);
+
+        updateLabelSlots();
+    }
+
+    private void updateLabelSlots() {
+        if (mLabelDecimation) {
+            sectionLayout.updateLabelSlots(measuredTextHeight);
+        } else {
+            sectionLayout.clearLabelSlots();
+        }
+    }
+
+    private float getSectionTop(int index) {
+        return sectionLayout.getTop(index);
+    }
+    //endregion
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (hidden) {
+            return;
+        }
+
+        if (metrics == null) {
+            drawSections(canvas);
+            return;
+        }
+
+        TraceCompat.beginSection("FastScroller#onDraw");
+
+        long start = System.nanoTime();
+
+        drawSections(canvas);
+
+        metrics.getDrawTime().record(System.nanoTime() - start);
+
+        if (!decorations.isEmpty() || !styleDecorations.isEmpty()) {
+            metrics.getDecorationTime().record(metricsDecorationTime);
+            metricsDecorationTime = 0;
+        }
+
+        TraceCompat.endSection();
+    }
+
+    private void drawSections(Canvas canvas) {
+        if (sectionLength == 0) {
+            return;
+        }
+
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+
+        float width = getMeasuredWidth() - getPaddingLeft() - getPaddingRight();
+        float centerX = width / 2f;
+
+        textPaint.setColor(mTextColor);
+        textPaint.setTextSize(mTextSize);
+        textPaint.setTypeface(Typeface.DEFAULT);
+
+        float halfSpacing = sectionLayout.getHalfSpacing();
+        boolean styled = touchState == TOUCH_SCROLL && !styleDecorations.isEmpty();
+
+        if (styled && (styleTableDirty || styleTableIndex != sectionIndex)) {
+            updateStyleTable();
+        }
+
+        // narrower than the view only for software rendering and before 21, see invalidateRows
+        if (!canvas.getClipBounds(clipRect)) {
+            return;
+        }
+
+        float overflow = getGlyphOverflow();
+
+        int first = sectionLayout.findFirstDrawn(clipRect.top - overflow);
+        int last = sectionLayout.findLastDrawn(clipRect.bottom + overflow);
+        int drawnCount = sectionLayout.getDrawnCount();
+
+        for (int row = first; row <= last; row++) {
+            int index = sectionLayout.getDrawnSection(row);
+
+            drawRow(canvas, index, width, centerX, halfSpacing, styled);
+
+            // decimated, the skipped sections are marked with a dot
+            if (row + 1 < drawnCount && sectionLayout.getDrawnSection(row + 1) > index + 1) {
+                float dotY = (sectionLayout.getCenter(index) + sectionLayout.getCenter(sectionLayout.getDrawnSection(row + 1))) / 2f;
+
+                textPaint.setColor(mTextColor);
+                canvas.drawCircle(centerX, dotY, measuredTextHeight / 10f, textPaint);
+            }
+        }
+    }
+
+    private void drawRow(Canvas canvas, int i, float width, float centerX, float halfSpacing, boolean styled) {
+        float y = sectionLayout.getTop(i);
+        float height = sectionLayout.getHeight(i);
+
+        if (debugPaint != null) {
+            debugRect.set(0, y + halfSpacing, width - 1, y + height - halfSpacing - 1);
+            canvas.drawRect(debugRect, debugPaint);
+        }
+
+        if (styled) {
+            y += (height + measuredTextHeight * styleScale[i]) / 2f;
+        } else {
+            y += (height + measuredTextHeight) / 2f;
+        }
+
+        if (touchState == TOUCH_SCROLL) {
+            String text = sectionLabels.get(i);
+
+            if (styled) {
+                textPaint.setAlpha(Color.alpha(mTextColor) * styleAlpha[i] / 255);
+                textPaint.setTextSize(mTextSize * styleScale[i]);
+                textPaint.setTypeface(styleTypeface[i]);
+
+                if (styleLabel[i] != null) {
+                    text = styleLabel[i];
+                }
+            }
+
+            paintProperty.setValue(textPaint);
+            stringProperty.setValue(text);
+
+            long start = metrics != null ? System.nanoTime() : 0;
+
+            for (int j = 0; j < decorations.size(); j++) {
+                decorations.get(j).onDraw(canvas, stringProperty, paintProperty, i, Math.abs(i - sectionIndex));
+            }
+
+            if (metrics != null) {
+                metricsDecorationTime += System.nanoTime() - start;
+            }
+
+            drawSection(canvas, i, stringProperty.getValue(), centerX, y, paintProperty.getValue());
+        } else if (i == sectionIndex && mHighlightColor != 0) {
+            textPaint.setColor(mHighlightColor);
+            drawSection(canvas, i, sectionLabels.get(i), centerX, y, textPaint);
+            textPaint.setColor(mTextColor);
+        } else {
+            drawSection(canvas, i, sectionLabels.get(i), centerX, y, textPaint);
+        }
+    }
+
+    private void updateStyleTable() {
+        ensureStyleCapacity(sectionLength);
+
+        boolean full = styleTableDirty;
+        int count = styleDecorations.size();
+
+        styleChangedFrom = Integer.MAX_VALUE;
+        styleChangedTo = -1;
+        styleMaxScale = 1f;
+
+        long start = metrics != null ? System.nanoTime() : 0;
+        float selection = selectionAnimating ? selectionPosition : sectionIndex;
+
+        for (int i = 0; i < sectionLength; i++) {
+            float distance = Math.abs(i - selection);
+            int roundedDistance = Math.round(distance);
+
+            sectionStyle.reset();
+
+            for (int j = 0; j < count; j++) {
+                StyleDecorationItem decoration = styleDecorations.get(j);
+
+                if (decoration instanceof AnimatedStyleDecorationItem) {
+                    ((AnimatedStyleDecorationItem) decoration).onStyle(sectionStyle, i, distance);
+                } else {
+                    decoration.onStyle(sectionStyle, i, roundedDistance);
+                }
+            }
+
+            int alpha = sectionStyle.getAlpha();
+            float scale = sectionStyle.getScale();
+            Typeface typeface = sectionStyle.getTypeface();
+            String label = sectionStyle.getLabel();
+
+            if (full || styleAlpha[i] != alpha || styleScale[i] != scale
+                    || styleTypeface[i] != typeface || !TextUtils.equals(styleLabel[i], label)) {
+                styleChangedFrom = Math.min(styleChangedFrom, i);
+                styleChangedTo = i;
+            }
+
+            styleAlpha[i] = alpha;
+            styleScale[i] = scale;
+            styleTypeface[i] = typeface;
+            styleLabel[i] = label;
+            styleMaxScale = Math.max(styleMaxScale, scale);
+        }
+
+        styleTableDirty = false;
+        styleTableIndex = sectionIndex;
 
-        if (sectionLength == 0 || !sectionCacheDirty) {
-            sectionCacheDirty = false;
+        if (metrics != null) {
+            metricsDecorationTime += System.nanoTime() - start;
+        }
+    }
+
+    private void ensureStyleCapacity(int length) {
+        if (styleAlpha != null && styleAlpha.length >= length) {
             return;
         }
 
-        sectionCacheDirty = false;
+        styleAlpha = new int[length];
+        styleScale = new float[length];
+        styleTypeface = new Typeface[length];
+        styleLabel = new String[length];
+        styleTableDirty = true;
+    }
 
-        if (mSectionWidth >= 0) {
-            measuredSectionWidth = mSectionWidth;
-        } else {
-            measuredSectionWidth = 0;
+    private void drawSection(Canvas canvas, int index, String text, float x, float y, Paint paint) {
+        // overridden text by decoration can't be served from the atlas,
+        // nor the interpolated sizes of a selection animation which would evict the steady ones
+        if (atlas != null && !selectionAnimating && !sectionLabels.isLazy() && text == sectionLabels.get(index)
+                && atlas.draw(canvas, index, x, y, paint)) {
+            return;
+        }
+
+        canvas.drawText(text, x, y, paint);
+    }
+
+    // only the widest label and the measured width, not every label
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+
+        if (mSectionWidth >= 0 || measuredSectionWidth <= 0) {
+            return state;
+        }
 
-            textPaint.setTextSize(mTextSize);
-            textPaint.setTypeface(Typeface.DEFAULT);
+        state.textSize = mTextSize;
+        state.sectionWidth = measuredSectionWidth;
 
-            for (String section : sectionCache) {
-                measuredSectionWidth = Math.max(measuredSectionWidth, textPaint.measureText(section));
+        if (sectionLabels.isLazy()) {
+            state.widestLabel = sectionLabels.getSource().getWidestLabel();
+        } else {
+            for (int i = 0; i < sectionLength; i++) {
+                if (sectionLabels.isMeasured(i) && sectionLabels.getWidth(i) == measuredSectionWidth) {
+                    state.widestLabel = sectionLabels.get(i);
+                    break;
+                }
             }
         }
+
+        return state;
     }
 
+    // the width is used until the recreated indexer publishes its sections, which then measure to it
+    // without another layout
     @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
-        int width = MeasureSpec.getSize(widthMeasureSpec);
-        int heightMode = MeasureSpec.getMode(heightMeasureSpec);
-        int height = MeasureSpec.getSize(heightMeasureSpec);
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
 
-        if (dirty) {
-            measureSection();
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        if (savedState.sectionWidth <= 0 || savedState.textSize != mTextSize) {
+            return;
         }
 
-        if (widthMode != MeasureSpec.EXACTLY) {
-            int measuredWidth = (int) (measuredSectionWidth + getPaddingLeft() + getPaddingRight());
+        if (savedState.widestLabel != null) {
+            TextMeasureCache.getInstance().put(savedState.widestLabel, savedState.textSize, Typeface.DEFAULT, savedState.sectionWidth);
+        }
 
-            if (widthMode == MeasureSpec.AT_MOST) {
-                width = Math.min(measuredWidth, width);
-            } else {
-                width = measuredWidth;
-            }
+        if (sectionLength == 0) {
+            restoredSectionWidth = savedState.sectionWidth;
+            invalidateMeasureSection();
+            requestLayout();
         }
+    }
 
-        measuredSpacing = mSpacing;
-        measuredSectionHeight = mSectionHeight == -1 ? measuredTextHeight : mSectionHeight;
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
 
-        boolean measure = false;
+        attachPreview();
+        scheduleAutoHide();
+    }
 
-        if (heightMode != MeasureSpec.EXACTLY) {
-            float desiredHeight = (measuredSectionHeight + measuredSpacing) * sectionLength;
-            int measuredHeight = (int) (desiredHeight + getPaddingTop() + getPaddingBottom());
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
 
-            if (heightMode == MeasureSpec.AT_MOST) {
-                measure = measuredHeight > height;
-                height = Math.min(measuredHeight, height);
-            } else {
-                height = measuredHeight;
-            }
+        detachPreview();
+        cancelPrefetch();
+        cancelSelectionAnimation();
+        removeCallbacks(hideRunnable);
+
+        cancelSectionDispatch();
+        cancelSettle();
+
+        if (atlas != null) {
+            atlas.clear();
+        }
+    }
+
+    private void attachPreview() {
+        if (preview == null || previewHost != null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return;
+        }
+
+        if (getParent() instanceof ViewGroup) {
+            previewHost = (ViewGroup) getParent();
+            previewHost.getOverlay().add(preview);
+        }
+    }
+
+    private void detachPreview() {
+        if (previewHost == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return;
+        }
+
+        preview.hide();
+        previewHost.getOverlay().remove(preview);
+        previewHost = null;
+    }
+
+    // positions the bubble beside the current section in the coordinates of the parent, no layout involved
+    private void updatePreview() {
+        if (previewHost == null) {
+            return;
+        }
+
+        if (touchState != TOUCH_SCROLL || sectionIndex < 0 || sectionIndex >= sectionLength) {
+            preview.hide();
+            return;
+        }
+
+        int size = preview.getSize();
+        int left;
+
+        if (ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL) {
+            left = (int) (getRight() + getTranslationX()) + mPreviewMargin;
         } else {
-            measure = true;
+            left = (int) (getLeft() + getTranslationX()) - mPreviewMargin - size;
         }
 
-        if (measure) {
-            int contentHeight = Math.max(0, height - getPaddingTop() - getPaddingBottom());
+        float center = getTop() + getTranslationY() + getPaddingTop() + sectionLayout.getCenter(sectionIndex);
+        int top = (int) (center - size / 2f);
 
-            if (mSectionHeight == -1) {
-                measuredSectionHeight = Math.max(0, contentHeight - sectionLength * measuredSpacing) / sectionLength;
-            }
+        top = Math.max(0, Math.min(previewHost.getHeight() - size, top));
 
-            float desiredHeight = (measuredSectionHeight + measuredSpacing) * sectionLength;
+        preview.show(sectionIndex, sectionLabels.get(sectionIndex), left, top);
+    }
 
-            if (desiredHeight < contentHeight) {
-                measuredSpacing = (contentHeight - measuredSectionHeight * sectionLength) / sectionLength;
-            } else {
-                measuredSpacing = 0;
-                desiredHeight = measuredSectionHeight * sectionLength;
+    protected void onSectionChanged(int index) {
+        // TODO: virtual method
+    }
 
-                if (desiredHeight > contentHeight) {
-                    measuredSectionHeight = contentHeight / (float) sectionLength;
-                } else {
-                    measuredSpacing = (contentHeight - desiredHeight) / sectionLength;
-                }
-            }
+    private void scheduleSectionDispatch() {
+        if (dispatchScheduled) {
+            return;
         }
 
-        setMeasuredDimension(width, height);
+        dispatchScheduled = true;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().postFrameCallback(dispatchFrameCallback);
+        } else {
+            ViewCompat.postOnAnimation(this, dispatchRunnable);
+        }
     }
-    //endregion
 
-    @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
+    private void cancelSectionDispatch() {
+        if (!dispatchScheduled) {
+            return;
+        }
 
-        if (sectionLength == 0) {
+        dispatchScheduled = false;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().removeFrameCallback(dispatchFrameCallback);
+        } else {
+            removeCallbacks(dispatchRunnable);
+        }
+    }
+
+    private void flushSectionDispatch() {
+        if (dispatchScheduled) {
+            cancelSectionDispatch();
+            dispatchSection();
+        }
+    }
+
+    private void dispatchSection() {
+        dispatchScheduled = false;
+
+        if (sectionIndex != -1 && sectionIndex != dispatchedSection) {
+            dispatchedSection = sectionIndex;
+            raiseOnSectionScrolledListener(sectionIndex);
+        }
+
+        metricsDispatchTime = 0;
+    }
+
+    private void scheduleSettle() {
+        if (mSettleDelay <= 0 || settledListeners.isEmpty()) {
             return;
         }
 
-        canvas.translate(getPaddingLeft(), getPaddingTop());
+        removeCallbacks(settleRunnable);
+        postDelayed(settleRunnable, mSettleDelay);
+        settlePending = true;
+    }
 
-        float width = getMeasuredWidth() - getPaddingLeft() - getPaddingRight();
-        float centerX = width / 2f;
+    private void cancelSettle() {
+        if (settlePending) {
+            settlePending = false;
+            removeCallbacks(settleRunnable);
+        }
+    }
 
-        textPaint.setColor(mTextColor);
-        textPaint.setTextSize(mTextSize);
-        textPaint.setTypeface(Typeface.DEFAULT);
+    private void dispatchSettledSection() {
+        settlePending = false;
 
-        float groupHeight = measuredSectionHeight + measuredSpacing;
-        float halfSpacing = measuredSpacing / 2;
-        float y;
+        if (sectionIndex == -1) {
+            return;
+        }
 
-        for (int i = 0; i < sectionLength; i++) {
-            y = i * groupHeight;
+        for (int i = 0; i < settledListeners.size(); i++) {
+            settledListeners.get(i).onSectionSettled(mIndexer, sectionIndex);
+        }
+    }
+
+    private void raiseOnSectionScrolledListener(int section) {
+        if (metrics != null) {
+            TraceCompat.beginSection("FastScroller#dispatch");
 
-            if (debugPaint != null) {
-                debugRect.set(0, y + halfSpacing, width - 1, y + groupHeight - halfSpacing - 1);
-                canvas.drawRect(debugRect, debugPaint);
+            if (metricsDispatchTime != 0) {
+                metrics.getDispatchLatency().record(System.nanoTime() - metricsDispatchTime);
+                metricsDispatchTime = 0;
             }
+        }
 
-            y += (groupHeight + measuredTextHeight) / 2f;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onSectionScrolled(mIndexer, section);
+        }
 
-            if (touchState == TOUCH_SCROLL) {
-                paintProperty.setValue(textPaint);
-                stringProperty.setValue(sectionCache[i]);
+        resolveSectionPosition(section);
 
-                for (DecorationItem decoration : decorations) {
-                    decoration.onDraw(canvas, stringProperty, paintProperty, i, Math.abs(i - sectionIndex));
-                }
+        if (metrics != null) {
+            TraceCompat.endSection();
+        }
+    }
 
-                canvas.drawText(stringProperty.getValue(), centerX, y, paintProperty.getValue());
-            } else {
-                canvas.drawText(sectionCache[i], centerX, y, textPaint);
-            }
+    private void resolveSectionPosition(int section) {
+        if (mPositionExecutor == null || mIndexer == null || positionListeners.isEmpty()) {
+            return;
         }
+
+        // supersedes every request in flight
+        int generation = ++resolveGeneration;
+
+        resolveToken.set(generation);
+
+        if (resolvedPositions[section] != UNRESOLVED_POSITION) {
+            raiseOnSectionPositionResolvedListener(section, resolvedPositions[section]);
+            return;
+        }
+
+        positionResolver.request(mIndexer, section, generation, sectionGeneration);
+        mPositionExecutor.execute(positionResolver);
     }
 
-    protected void onSectionChanged(int index) {
-        // TODO: virtual method
+    private void onSectionPositionResolved(int sections, int generation, int section, int position) {
+        if (sections != sectionGeneration) {
+            return;
+        }
+
+        // superseded results are still valid for the cache
+        resolvedPositions[section] = position;
+
+        if (generation == resolveGeneration) {
+            raiseOnSectionPositionResolvedListener(section, position);
+        }
     }
 
-    private void raiseOnSectionScrolledListener(int section) {
-        for (OnSectionScrolledListener listener : listeners) {
-            listener.onSectionScrolled(mIndexer, section);
+    private void raiseOnSectionPrefetchListener(int fromSection, int toSection) {
+        for (int i = 0; i < prefetchListeners.size(); i++) {
+            prefetchListeners.get(i).onSectionPrefetch(mIndexer, fromSection, toSection);
+        }
+    }
+
+    private void raiseOnSectionPrefetchCancelledListener(int fromSection, int toSection) {
+        for (int i = 0; i < prefetchListeners.size(); i++) {
+            prefetchListeners.get(i).onSectionPrefetchCancelled(mIndexer, fromSection, toSection);
+        }
+    }
+
+    private void raiseOnSectionPositionResolvedListener(int section, int position) {
+        for (int i = 0; i < positionListeners.size(); i++) {
+            positionListeners.get(i).onSectionPositionResolved(mIndexer, section, position);
         }
     }
 
@@ -582,6 +2151,52 @@ public class FastScroller extends View {
         invalidate();
     }
 
+    public void addStyleDecoration(StyleDecorationItem decoration) {
+        styleDecorations.add(decoration);
+        styleTableDirty = true;
+        invalidate();
+    }
+
+    public void removeStyleDecoration(StyleDecorationItem decoration) {
+        styleDecorations.remove(decoration);
+        styleTableDirty = true;
+        invalidate();
+    }
+
+    // re-evaluates the style decorations, when their output depends on outer state
+    public void invalidateStyleDecorations() {
+        styleTableDirty = true;
+        invalidate();
+    }
+
+    // enables the metrics, reported to the sink at the end of every gesture and on flushMetrics, null to disable
+    public void setMetricsSink(MetricsSink sink) {
+        metricsSink = sink;
+
+        if (sink == null) {
+            metrics = null;
+        } else if (metrics == null) {
+            metrics = new FastScrollerMetrics();
+            metricsDispatchTime = 0;
+            metricsDecorationTime = 0;
+        }
+    }
+
+    public MetricsSink getMetricsSink() {
+        return metricsSink;
+    }
+
+    public void flushMetrics() {
+        FastScrollerMetrics current = metrics;
+
+        if (current == null) {
+            return;
+        }
+
+        metricsSink.onMetrics(current);
+        current.reset();
+    }
+
     public void addOnSectionScrolledListener(OnSectionScrolledListener listener) {
         listeners.add(listener);
     }
@@ -590,14 +2205,216 @@ public class FastScroller extends View {
         listeners.remove(listener);
     }
 
+    public void addOnSectionSettledListener(OnSectionSettledListener listener) {
+        settledListeners.add(listener);
+    }
+
+    public void removeOnSectionSettledListener(OnSectionSettledListener listener) {
+        settledListeners.remove(listener);
+    }
+
+    public void addOnSectionPrefetchListener(OnSectionPrefetchListener listener) {
+        prefetchListeners.add(listener);
+    }
+
+    public void removeOnSectionPrefetchListener(OnSectionPrefetchListener listener) {
+        prefetchListeners.remove(listener);
+
+        if (prefetchListeners.isEmpty()) {
+            cancelPrefetch();
+        }
+    }
+
+    public void addOnSectionPositionResolvedListener(OnSectionPositionResolvedListener listener) {
+        positionListeners.add(listener);
+    }
+
+    public void removeOnSectionPositionResolvedListener(OnSectionPositionResolvedListener listener) {
+        positionListeners.remove(listener);
+    }
+
     public interface OnSectionScrolledListener {
         void onSectionScrolled(SectionIndexer indexer, int section);
     }
 
+    public interface OnSectionSettledListener {
+        void onSectionSettled(SectionIndexer indexer, int section);
+    }
+
+    public interface OnSectionPositionResolvedListener {
+        // called on the main thread, only for the latest dispatched section
+        void onSectionPositionResolved(SectionIndexer indexer, int section, int position);
+    }
+
+    public interface MetricsSink {
+        // called on the main thread, the metrics are reset after the call
+        void onMetrics(FastScrollerMetrics metrics);
+    }
+
+    public interface OnSectionPrefetchListener {
+        // sections the finger is predicted to cross, from the current one to the predicted landing one
+        void onSectionPrefetch(SectionIndexer indexer, int fromSection, int toSection);
+
+        // the range is superseded by a new prediction or the scroll ended
+        void onSectionPrefetchCancelled(SectionIndexer indexer, int fromSection, int toSection);
+    }
+
     public interface DecorationItem {
         void onDraw(Canvas canvas, Property<String> text, Property<Paint> paint, int index, int distance);
     }
 
+    public interface StyleDecorationItem {
+        // evaluated only when the selected section or the sections change, not per frame
+        void onStyle(SectionStyle style, int index, int distance);
+    }
+
+    public interface AnimatedStyleDecorationItem extends StyleDecorationItem {
+        // called instead of the int variant, every frame while the selection animates (setSelectionAnimation)
+        void onStyle(SectionStyle style, int index, float distance);
+    }
+
+    // API 16+
+    private class DispatchFrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            dispatchSection();
+        }
+    }
+
+    // reused for every request, a newer request replaces the pending one and only the latest result is delivered
+    private class PositionResolver implements Runnable {
+        private final Runnable deliverRunnable = new Runnable() {
+            @Override
+            public void run() {
+                deliver();
+            }
+        };
+
+        private boolean requested;
+        private SectionIndexer indexer;
+        private int section;
+        private int generation;
+        private int sections;
+
+        private boolean resolved;
+        private int resolvedSection;
+        private int resolvedPosition;
+        private int resolvedGeneration;
+        private int resolvedSections;
+
+        synchronized void request(SectionIndexer indexer, int section, int generation, int sections) {
+            this.indexer = indexer;
+            this.section = section;
+            this.generation = generation;
+            this.sections = sections;
+            requested = true;
+        }
+
+        // worker thread
+        @Override
+        public void run() {
+            SectionIndexer indexer;
+            int section;
+            int generation;
+            int sections;
+
+            synchronized (this) {
+                if (!requested) {
+                    return;
+                }
+
+                requested = false;
+                indexer = this.indexer;
+                section = this.section;
+                generation = this.generation;
+                sections = this.sections;
+                this.indexer = null;
+            }
+
+            if (resolveToken.get() != generation) {
+                return;
+            }
+
+            int position = indexer.getPositionForSection(section);
+
+            synchronized (this) {
+                resolved = true;
+                resolvedSection = section;
+                resolvedPosition = position;
+                resolvedGeneration = generation;
+                resolvedSections = sections;
+            }
+
+            mainHandler.post(deliverRunnable);
+        }
+
+        private void deliver() {
+            int section;
+            int position;
+            int generation;
+            int sections;
+
+            synchronized (this) {
+                if (!resolved) {
+                    return;
+                }
+
+                resolved = false;
+                section = resolvedSection;
+                position = resolvedPosition;
+                generation = resolvedGeneration;
+                sections = resolvedSections;
+            }
+
+            onSectionPositionResolved(sections, generation, section, position);
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+        float textSize;
+        float sectionWidth;
+        String widestLabel;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            textSize = in.readFloat();
+            sectionWidth = in.readFloat();
+            widestLabel = in.readString();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeFloat(textSize);
+            out.writeFloat(sectionWidth);
+            out.writeString(widestLabel);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    // API 16+
+    private class SelectionFrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onSelectionFrame(frameTimeNanos);
+        }
+    }
+
     private class PreviewSectionIndexer implements SectionIndexer {
         private Object[] sections;
 
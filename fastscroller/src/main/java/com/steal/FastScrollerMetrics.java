@@ -0,0 +1,76 @@
+package com.steal;
+
+import com.steal.common.Histogram;
+
+// Timings of one FastScroller in nanoseconds, aggregated between two reports.
+// Owned by the view, only valid during MetricsSink.onMetrics.
+public final class FastScrollerMetrics {
+    private static final long[] FRAME_BOUNDS = {
+            250_000L, 500_000L, 1_000_000L, 2_000_000L, 4_000_000L, 8_000_000L, 16_000_000L, 32_000_000L
+    };
+
+    private static final long[] LATENCY_BOUNDS = {
+            1_000_000L, 2_000_000L, 4_000_000L, 8_000_000L, 16_000_000L, 33_000_000L, 66_000_000L, 133_000_000L
+    };
+
+    private final Histogram drawTime;
+    private final Histogram decorationTime;
+    private final Histogram dispatchLatency;
+    private int measureCount;
+    private int sectionMeasureCount;
+    private int labelMeasureCount;
+
+    FastScrollerMetrics() {
+        drawTime = new Histogram(FRAME_BOUNDS);
+        decorationTime = new Histogram(FRAME_BOUNDS);
+        dispatchLatency = new Histogram(LATENCY_BOUNDS);
+    }
+
+    // onDraw per frame
+    public Histogram getDrawTime() {
+        return drawTime;
+    }
+
+    // DecorationItem and StyleDecorationItem callbacks per frame
+    public Histogram getDecorationTime() {
+        return decorationTime;
+    }
+
+    // onTouchEvent of the first sample changing the section to the OnSectionScrolledListener dispatch
+    public Histogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    // onMeasure passes, including the ones served from the measure cache
+    public int getMeasureCount() {
+        return measureCount;
+    }
+
+    // measureSection passes
+    public int getSectionMeasureCount() {
+        return sectionMeasureCount;
+    }
+
+    // labels measured by measureSection, TextMeasureCache hits included
+    public int getLabelMeasureCount() {
+        return labelMeasureCount;
+    }
+
+    void onMeasure() {
+        measureCount++;
+    }
+
+    void onSectionMeasure(int labels) {
+        sectionMeasureCount++;
+        labelMeasureCount += labels;
+    }
+
+    void reset() {
+        drawTime.reset();
+        decorationTime.reset();
+        dispatchLatency.reset();
+        measureCount = 0;
+        sectionMeasureCount = 0;
+        labelMeasureCount = 0;
+    }
+}
@@ -0,0 +1,303 @@
+package com.steal;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.support.v4.content.ContextCompat;
+import android.support.v7.content.res.AppCompatResources;
+import android.util.AttributeSet;
+import android.view.ViewConfiguration;
+
+// Attributes of a FastScroller resolved once from the theme, a style resource or the xml attributes.
+// Immutable, one instance can be shared by every scroller created in code (FastScroller(Context, FastScrollerStyle))
+// to skip the TypedArray, the background drawable and the dimension lookups of each constructor.
+public final class FastScrollerStyle {
+    private float textSize;
+    private int textColor;
+    private int highlightColor;
+    private float spacing;
+    private float sectionWidth;
+    private float sectionHeight;
+    private boolean sensitiveScroll;
+    private boolean atlasEnabled;
+    private int decorationRadius;
+    private boolean weightedSections;
+    private boolean labelDecimation;
+    private int dispatchMode;
+    private long settleDelay;
+    private long prefetchLookahead;
+    private long prefetchInterval;
+    private boolean selectionAnimation;
+    private long selectionDuration;
+    private boolean autoHide;
+    private long autoHideDelay;
+    private boolean previewEnabled;
+    private float previewSize;
+    private float previewTextSize;
+    private int previewTextColor;
+    private int previewBackgroundColor;
+    private int previewMargin;
+    private boolean debug;
+
+    // background, the constant state is shared like Resources shares it between drawables of one resource
+    private int backgroundRes;
+    private Drawable.ConstantState backgroundState;
+
+    // padding, start and end are -1 when not set and resolved with the layout direction of the view
+    private int paddingLeft;
+    private int paddingTop;
+    private int paddingRight;
+    private int paddingBottom;
+    private int paddingStart = -1;
+    private int paddingEnd = -1;
+
+    private int touchSlop;
+
+    private FastScrollerStyle() {
+    }
+
+    public static FastScrollerStyle obtain(Context context) {
+        return obtain(context, null, 0, 0);
+    }
+
+    public static FastScrollerStyle obtain(Context context, @StyleRes int styleRes) {
+        return obtain(context, null, 0, styleRes);
+    }
+
+    public static FastScrollerStyle obtain(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        return obtain(context, attrs, defStyleAttr, 0);
+    }
+
+    public static FastScrollerStyle obtain(Context context, @Nullable AttributeSet attrs, int defStyleAttr, @StyleRes int defStyleRes) {
+        Resources resources = context.getResources();
+        FastScrollerStyle style = new FastScrollerStyle();
+
+        float defaultTextSize = resources.getDimension(R.dimen.fast_scroller_text_size);
+        float defaultSpacing = resources.getDimension(R.dimen.fast_scroller_spacing);
+        int defaultTextColor = ContextCompat.getColor(context, R.color.fast_scroller_text);
+        float defaultPreviewSize = resources.getDimension(R.dimen.fast_scroller_preview_size);
+        float defaultPreviewTextSize = resources.getDimension(R.dimen.fast_scroller_preview_text_size);
+        int defaultPreviewTextColor = ContextCompat.getColor(context, R.color.fast_scroller_preview_text);
+        int defaultPreviewBackgroundColor = ContextCompat.getColor(context, R.color.fast_scroller_preview_background);
+        int defaultPadding = resources.getDimensionPixelSize(R.dimen.fast_scroller_padding);
+
+        TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.FastScroller, defStyleAttr, defStyleRes);
+
+        style.textSize = array.getDimension(R.styleable.FastScroller_fs_textSize, defaultTextSize);
+        style.textColor = array.getColor(R.styleable.FastScroller_fs_textColor, defaultTextColor);
+        style.highlightColor = array.getColor(R.styleable.FastScroller_fs_highlightColor, 0);
+        style.spacing = array.getDimension(R.styleable.FastScroller_fs_spacing, defaultSpacing);
+        style.sectionWidth = array.getDimension(R.styleable.FastScroller_fs_sectionWidth, -1);
+        style.sectionHeight = array.getDimension(R.styleable.FastScroller_fs_sectionHeight, -1);
+        style.sensitiveScroll = array.getBoolean(R.styleable.FastScroller_fs_sensitiveScroll, false);
+        style.atlasEnabled = array.getBoolean(R.styleable.FastScroller_fs_atlas, false);
+        style.decorationRadius = array.getInt(R.styleable.FastScroller_fs_decorationRadius, -1);
+        style.weightedSections = array.getBoolean(R.styleable.FastScroller_fs_weighted, false);
+        style.labelDecimation = array.getBoolean(R.styleable.FastScroller_fs_decimation, false);
+        style.dispatchMode = array.getInt(R.styleable.FastScroller_fs_dispatchMode, FastScroller.DISPATCH_IMMEDIATE);
+        style.settleDelay = Math.max(0, array.getInt(R.styleable.FastScroller_fs_settleDelay, 0));
+        style.prefetchLookahead = Math.max(0, array.getInt(R.styleable.FastScroller_fs_prefetchLookahead, 0));
+        style.prefetchInterval = Math.max(0, array.getInt(R.styleable.FastScroller_fs_prefetchInterval, FastScroller.DEFAULT_PREFETCH_INTERVAL));
+        style.selectionAnimation = array.getBoolean(R.styleable.FastScroller_fs_selectionAnimation, false);
+        style.selectionDuration = Math.max(0, array.getInt(R.styleable.FastScroller_fs_selectionDuration, FastScroller.DEFAULT_SELECTION_DURATION));
+        style.autoHide = array.getBoolean(R.styleable.FastScroller_fs_autoHide, false);
+        style.autoHideDelay = Math.max(0, array.getInt(R.styleable.FastScroller_fs_autoHideDelay, FastScroller.DEFAULT_AUTO_HIDE_DELAY));
+        style.previewEnabled = array.getBoolean(R.styleable.FastScroller_fs_preview, false);
+        style.previewSize = array.getDimension(R.styleable.FastScroller_fs_previewSize, defaultPreviewSize);
+        style.previewTextSize = array.getDimension(R.styleable.FastScroller_fs_previewTextSize, defaultPreviewTextSize);
+        style.previewTextColor = array.getColor(R.styleable.FastScroller_fs_previewTextColor, defaultPreviewTextColor);
+        style.previewBackgroundColor = array.getColor(R.styleable.FastScroller_fs_previewBackground, defaultPreviewBackgroundColor);
+        style.previewMargin = resources.getDimensionPixelSize(R.dimen.fast_scroller_preview_margin);
+        style.debug = array.getBoolean(R.styleable.FastScroller_fs_debug, false);
+
+        // background
+        style.backgroundRes = array.getResourceId(R.styleable.FastScroller_android_background, R.drawable.background_round);
+
+        if (style.backgroundRes != 0) {
+            Drawable drawable = AppCompatResources.getDrawable(context, style.backgroundRes);
+            style.backgroundState = drawable != null ? drawable.getConstantState() : null;
+        }
+
+        // padding
+        int padding = array.getDimensionPixelSize(R.styleable.FastScroller_android_padding, -1);
+
+        if (padding == -1) {
+            int paddingVertical = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingVertical, -1);
+            int paddingHorizontal = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingHorizontal, -1);
+
+            if (paddingVertical != -1) {
+                style.paddingTop = paddingVertical;
+                style.paddingBottom = paddingVertical;
+            } else {
+                style.paddingTop = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingTop, defaultPadding);
+                style.paddingBottom = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingBottom, defaultPadding);
+            }
+
+            if (paddingHorizontal != -1) {
+                style.paddingLeft = paddingHorizontal;
+                style.paddingRight = paddingHorizontal;
+            } else {
+                style.paddingLeft = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingLeft, defaultPadding);
+                style.paddingRight = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingRight, defaultPadding);
+                style.paddingStart = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingStart, -1);
+                style.paddingEnd = array.getDimensionPixelSize(R.styleable.FastScroller_android_paddingEnd, -1);
+            }
+        } else {
+            style.paddingLeft = padding;
+            style.paddingTop = padding;
+            style.paddingRight = padding;
+            style.paddingBottom = padding;
+        }
+
+        array.recycle();
+
+        style.touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+        return style;
+    }
+
+    // a drawable of its own for each view, sharing the constant state
+    @Nullable
+    Drawable newBackground(Context context) {
+        if (backgroundState != null) {
+            return backgroundState.newDrawable(context.getResources());
+        }
+
+        return backgroundRes != 0 ? AppCompatResources.getDrawable(context, backgroundRes) : null;
+    }
+
+    public float getTextSize() {
+        return textSize;
+    }
+
+    public int getTextColor() {
+        return textColor;
+    }
+
+    public int getHighlightColor() {
+        return highlightColor;
+    }
+
+    public float getSpacing() {
+        return spacing;
+    }
+
+    public float getSectionWidth() {
+        return sectionWidth;
+    }
+
+    public float getSectionHeight() {
+        return sectionHeight;
+    }
+
+    public boolean isSensitiveScroll() {
+        return sensitiveScroll;
+    }
+
+    public boolean isAtlasEnabled() {
+        return atlasEnabled;
+    }
+
+    public int getDecorationRadius() {
+        return decorationRadius;
+    }
+
+    public boolean isWeightedSections() {
+        return weightedSections;
+    }
+
+    public boolean isLabelDecimation() {
+        return labelDecimation;
+    }
+
+    public int getDispatchMode() {
+        return dispatchMode;
+    }
+
+    public long getSettleDelay() {
+        return settleDelay;
+    }
+
+    public long getPrefetchLookahead() {
+        return prefetchLookahead;
+    }
+
+    public long getPrefetchInterval() {
+        return prefetchInterval;
+    }
+
+    public boolean isSelectionAnimation() {
+        return selectionAnimation;
+    }
+
+    public long getSelectionDuration() {
+        return selectionDuration;
+    }
+
+    public boolean isAutoHide() {
+        return autoHide;
+    }
+
+    public long getAutoHideDelay() {
+        return autoHideDelay;
+    }
+
+    public boolean isPreviewEnabled() {
+        return previewEnabled;
+    }
+
+    public float getPreviewSize() {
+        return previewSize;
+    }
+
+    public float getPreviewTextSize() {
+        return previewTextSize;
+    }
+
+    public int getPreviewTextColor() {
+        return previewTextColor;
+    }
+
+    public int getPreviewBackgroundColor() {
+        return previewBackgroundColor;
+    }
+
+    public int getPreviewMargin() {
+        return previewMargin;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public int getPaddingLeft() {
+        return paddingLeft;
+    }
+
+    public int getPaddingTop() {
+        return paddingTop;
+    }
+
+    public int getPaddingRight() {
+        return paddingRight;
+    }
+
+    public int getPaddingBottom() {
+        return paddingBottom;
+    }
+
+    public int getPaddingStart() {
+        return paddingStart;
+    }
+
+    public int getPaddingEnd() {
+        return paddingEnd;
+    }
+
+    public int getTouchSlop() {
+        return touchSlop;
+    }
+}
@@ -0,0 +1,266 @@
+package com.steal;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Every (text size, typeface) variant is rasterized once into ALPHA_8 bitmap pages,
+// the color and alpha of the drawing paint are applied at blit time.
+// The least recently drawn variant is evicted once MAX_VARIANTS are cached.
+class SectionAtlas {
+    private static final int MAX_VARIANTS = 8;
+    private static final int MAX_ATLAS_WIDTH = 2048;
+    // below the maximum texture size of every GPU
+    private static final int MAX_ATLAS_HEIGHT = 2048;
+    private static final int GLYPH_PADDING = 1;
+
+    private final TextPaint rasterPaint;
+    private final List<Variant> variants;
+    private final Rect srcRect;
+    private final RectF dstRect;
+
+    private String[] sections;
+    private int sectionLength;
+
+    SectionAtlas() {
+        rasterPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        rasterPaint.setTextAlign(Paint.Align.LEFT);
+        rasterPaint.setColor(Color.WHITE);
+
+        variants = new ArrayList<>();
+        srcRect = new Rect();
+        dstRect = new RectF();
+    }
+
+    boolean setSections(String[] sections, int length) {
+        if (sectionLength == length && contentEquals(this.sections, sections, length)) {
+            return false;
+        }
+
+        if (this.sections == null || this.sections.length < length) {
+            this.sections = new String[length];
+        }
+
+        if (length > 0) {
+            System.arraycopy(sections, 0, this.sections, 0, length);
+        }
+
+        this.sectionLength = length;
+
+        clear();
+        return true;
+    }
+
+    void clear() {
+        for (int i = 0; i < variants.size(); i++) {
+            variants.get(i).recycle();
+        }
+
+        variants.clear();
+    }
+
+    // rasterizes the variant ahead of the first draw
+    void prepare(float textSize, Typeface typeface) {
+        obtainVariant(textSize, typeface);
+    }
+
+    boolean contains(float textSize, Typeface typeface) {
+        for (int i = 0; i < variants.size(); i++) {
+            Variant variant = variants.get(i);
+
+            if (variant.textSize == textSize && variant.typeface == typeface) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    boolean draw(Canvas canvas, int index, float centerX, float baseline, Paint paint) {
+        if (index < 0 || index >= sectionLength) {
+            return false;
+        }
+
+        Variant variant = obtainVariant(paint.getTextSize(), paint.getTypeface());
+
+        if (variant == null) {
+            return false;
+        }
+
+        int left = variant.left[index];
+        int top = variant.top[index];
+        int width = variant.width[index];
+
+        srcRect.set(left, top, left + width, top + variant.cellHeight);
+
+        float dstLeft = centerX - width / 2f;
+        float dstTop = baseline - variant.baseline;
+
+        dstRect.set(dstLeft, dstTop, dstLeft + width, dstTop + variant.cellHeight);
+
+        canvas.drawBitmap(variant.pages[variant.page[index]], srcRect, dstRect, paint);
+        return true;
+    }
+
+    private Variant obtainVariant(float textSize, Typeface typeface) {
+        // most recently drawn last
+        for (int i = variants.size() - 1; i >= 0; i--) {
+            Variant variant = variants.get(i);
+
+            if (variant.textSize == textSize && variant.typeface == typeface) {
+                if (i != variants.size() - 1) {
+                    variants.remove(i);
+                    variants.add(variant);
+                }
+
+                return variant;
+            }
+        }
+
+        if (textSize <= 0) {
+            return null;
+        }
+
+        if (variants.size() >= MAX_VARIANTS) {
+            variants.remove(0).recycle();
+        }
+
+        Variant variant = rasterize(textSize, typeface);
+
+        if (variant != null) {
+            variants.add(variant);
+        }
+
+        return variant;
+    }
+
+    private Variant rasterize(float textSize, Typeface typeface) {
+        rasterPaint.setTextSize(textSize);
+        rasterPaint.setTypeface(typeface);
+
+        Variant variant = new Variant(textSize, typeface, sectionLength);
+
+        variant.baseline = GLYPH_PADDING - (int) Math.floor(rasterPaint.ascent());
+        variant.cellHeight = variant.baseline + (int) Math.ceil(rasterPaint.descent()) + GLYPH_PADDING;
+
+        if (variant.cellHeight > MAX_ATLAS_HEIGHT) {
+            return null;
+        }
+
+        int x = 0;
+        int y = 0;
+        int page = 0;
+        int atlasWidth = 0;
+
+        for (int i = 0; i < sectionLength; i++) {
+            int width = (int) Math.ceil(TextMeasureCache.getInstance().measureText(rasterPaint, sections[i])) + GLYPH_PADDING * 2;
+
+            if (width > MAX_ATLAS_WIDTH) {
+                return null;
+            }
+
+            if (x > 0 && x + width > MAX_ATLAS_WIDTH) {
+                x = 0;
+                y += variant.cellHeight;
+
+                // the row doesn't fit in the page anymore
+                if (y + variant.cellHeight > MAX_ATLAS_HEIGHT) {
+                    y = 0;
+                    page++;
+                }
+            }
+
+            variant.left[i] = x;
+            variant.top[i] = y;
+            variant.width[i] = width;
+            variant.page[i] = page;
+
+            x += width;
+            atlasWidth = Math.max(atlasWidth, x);
+        }
+
+        if (atlasWidth <= 0) {
+            return null;
+        }
+
+        variant.pages = new Bitmap[page + 1];
+
+        for (int i = 0; i <= page; i++) {
+            // only the last page can be partially filled
+            int pageHeight = i == page ? y + variant.cellHeight : MAX_ATLAS_HEIGHT;
+
+            variant.pages[i] = Bitmap.createBitmap(atlasWidth, pageHeight, Bitmap.Config.ALPHA_8);
+        }
+
+        Canvas canvas = new Canvas();
+
+        for (int i = 0; i < sectionLength; i++) {
+            if (i == 0 || variant.page[i] != variant.page[i - 1]) {
+                canvas.setBitmap(variant.pages[variant.page[i]]);
+            }
+
+            canvas.drawText(sections[i], variant.left[i] + GLYPH_PADDING, variant.top[i] + variant.baseline, rasterPaint);
+        }
+
+        return variant;
+    }
+
+    private static boolean contentEquals(String[] a, String[] b, int length) {
+        if (length == 0) {
+            return true;
+        }
+
+        if (a == null || b == null) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (!a[i].equals(b[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static class Variant {
+        final float textSize;
+        final Typeface typeface;
+        final int[] left;
+        final int[] top;
+        final int[] width;
+        final int[] page;
+        int baseline;
+        int cellHeight;
+        Bitmap[] pages;
+
+        Variant(float textSize, Typeface typeface, int length) {
+            this.textSize = textSize;
+            this.typeface = typeface;
+            this.left = new int[length];
+            this.top = new int[length];
+            this.width = new int[length];
+            this.page = new int[length];
+        }
+
+        void recycle() {
+            if (pages == null) {
+                return;
+            }
+
+            for (int i = 0; i < pages.length; i++) {
+                pages[i].recycle();
+            }
+
+            pages = null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.steal;
+
+import android.widget.SectionIndexer;
+
+import com.steal.common.SectionTable;
+
+import java.util.List;
+
+// Builds a SectionIndexer from item labels sorted with a Collator of the display locale.
+// Sections are Latin letters (accents folded), Hangul initial consonants, digits and '#', see SectionBuckets.
+public final class SectionIndexBuilder {
+    private SectionIndexBuilder() {
+    }
+
+    public static SectionIndexer build(List<? extends CharSequence> labels) {
+        return new TableSectionIndexer(SectionTable.build(labels));
+    }
+
+    public static SectionIndexer build(CharSequence[] labels) {
+        return new TableSectionIndexer(SectionTable.build(labels));
+    }
+
+    private static final class TableSectionIndexer implements SectionIndexer {
+        private final SectionTable table;
+
+        TableSectionIndexer(SectionTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public Object[] getSections() {
+            return table.getSections();
+        }
+
+        @Override
+        public int getPositionForSection(int sectionIndex) {
+            return table.getPositionForSection(sectionIndex);
+        }
+
+        @Override
+        public int getSectionForPosition(int position) {
+            return table.getSectionForPosition(position);
+        }
+    }
+}
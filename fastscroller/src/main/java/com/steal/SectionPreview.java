@@ -0,0 +1,159 @@
+package com.steal;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+
+// Bubble showing the current section, hosted by the overlay of the parent.
+// Moving it only changes the bounds and invalidates the old and new area, the glyphs come from an atlas when rasterized.
+// The atlas is rasterized when the bubble appears, at most once per gesture, never on a section change.
+class SectionPreview extends Drawable {
+    private final SectionAtlas atlas;
+    private final TextPaint textPaint;
+    private final Paint backgroundPaint;
+
+    private int sectionLength;
+    private int index = -1;
+    private String label;
+    private int size;
+
+    SectionPreview() {
+        atlas = new SectionAtlas();
+
+        textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+
+        backgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        backgroundPaint.setColor(Color.BLACK);
+    }
+
+    void setSections(String[] sections, int length) {
+        if (!atlas.setSections(sections, length)) {
+            return;
+        }
+
+        sectionLength = length;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    void setTextSize(float textSize) {
+        if (textPaint.getTextSize() == textSize) {
+            return;
+        }
+
+        textPaint.setTextSize(textSize);
+
+        // only one size is ever drawn
+        atlas.clear();
+        invalidateSelf();
+    }
+
+    void setTextColor(int color) {
+        textPaint.setColor(color);
+        invalidateSelf();
+    }
+
+    void setBackgroundColor(int color) {
+        backgroundPaint.setColor(color);
+        invalidateSelf();
+    }
+
+    boolean isShown() {
+        return index != -1;
+    }
+
+    // sections without a pre-rendered glyph are drawn from the label
+    void show(int index, String label, int left, int top) {
+        if (this.index == index && label.equals(this.label) && isAt(left, top)) {
+            return;
+        }
+
+        // sections changed while shown are drawn from the label until the next gesture
+        if (this.index == -1) {
+            prepare();
+        }
+
+        // the old area, then the new one
+        invalidateSelf();
+
+        this.index = index;
+        this.label = label;
+        setBounds(left, top, left + size, top + size);
+
+        invalidateSelf();
+    }
+
+    void hide() {
+        if (index == -1) {
+            return;
+        }
+
+        invalidateSelf();
+        index = -1;
+        label = null;
+    }
+
+    void clear() {
+        atlas.clear();
+    }
+
+    private void prepare() {
+        if (sectionLength > 0 && textPaint.getTextSize() > 0) {
+            atlas.prepare(textPaint.getTextSize(), textPaint.getTypeface());
+        }
+    }
+
+    private boolean isAt(int left, int top) {
+        Rect bounds = getBounds();
+        return bounds.left == left && bounds.top == top && bounds.right - bounds.left == size;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        if (index < 0) {
+            return;
+        }
+
+        Rect bounds = getBounds();
+        float centerX = (bounds.left + bounds.right) / 2f;
+        float centerY = (bounds.top + bounds.bottom) / 2f;
+        float baseline = centerY - (textPaint.ascent() + textPaint.descent()) / 2f;
+
+        canvas.drawCircle(centerX, centerY, size / 2f, backgroundPaint);
+
+        if (index >= sectionLength || !atlas.contains(textPaint.getTextSize(), textPaint.getTypeface())
+                || !atlas.draw(canvas, index, centerX, baseline, textPaint)) {
+            canvas.drawText(label, centerX, baseline, textPaint);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        textPaint.setAlpha(alpha);
+        backgroundPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
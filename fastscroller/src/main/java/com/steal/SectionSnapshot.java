@@ -0,0 +1,52 @@
+package com.steal;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+import android.widget.SectionIndexer;
+
+import com.steal.common.SectionLabelSource;
+
+// Labels and widths of an indexer prepared off the main thread, not modified until published.
+// Publishing hands the arrays over to SectionLabels without a copy, which then owns and writes into them,
+// so a snapshot is published once and not read afterwards.
+final class SectionSnapshot {
+    final SectionIndexer indexer;
+    final String[] labels;
+    final float[] widths;
+    final float textSize;
+
+    private SectionSnapshot(SectionIndexer indexer, String[] labels, float[] widths, float textSize) {
+        this.indexer = indexer;
+        this.labels = labels;
+        this.widths = widths;
+        this.textSize = textSize;
+    }
+
+    // worker thread, lazy label sources are left to the main thread as they cost nothing there
+    static SectionSnapshot prepare(SectionIndexer indexer, float textSize) {
+        if (indexer == null || indexer instanceof SectionLabelSource) {
+            return new SectionSnapshot(indexer, null, null, textSize);
+        }
+
+        Object[] sections = indexer.getSections();
+        int length = sections != null ? sections.length : 0;
+        String[] labels = new String[length];
+        float[] widths = new float[length];
+
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(textSize);
+        paint.setTypeface(Typeface.DEFAULT);
+
+        for (int i = 0; i < length; i++) {
+            labels[i] = String.valueOf(sections[i]);
+            widths[i] = TextMeasureCache.getInstance().measureText(paint, labels[i]);
+        }
+
+        return new SectionSnapshot(indexer, labels, widths, textSize);
+    }
+
+    boolean isPrepared() {
+        return labels != null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.steal;
+
+import android.graphics.Typeface;
+
+public class SectionStyle {
+    private int alpha;
+    private float scale;
+    private Typeface typeface;
+    private String label;
+
+    SectionStyle() {
+        reset();
+    }
+
+    void reset() {
+        alpha = 255;
+        scale = 1f;
+        typeface = Typeface.DEFAULT;
+        label = null;
+    }
+
+    public int getAlpha() {
+        return alpha;
+    }
+
+    // 0 ~ 255, multiplied with the alpha of the text color
+    public void setAlpha(int alpha) {
+        this.alpha = Math.max(0, Math.min(255, alpha));
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    // multiplied with the text size
+    public void setScale(float scale) {
+        this.scale = scale;
+    }
+
+    public Typeface getTypeface() {
+        return typeface;
+    }
+
+    public void setTypeface(Typeface typeface) {
+        this.typeface = typeface;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // overrides the section text, null to keep it
+    public void setLabel(String label) {
+        this.label = label;
+    }
+}
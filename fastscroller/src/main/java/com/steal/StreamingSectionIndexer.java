@@ -0,0 +1,237 @@
+package com.steal;
+
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.SectionIndexer;
+
+import com.steal.common.SectionBuckets;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Builds the sections of sorted labels on an executor in chunks,
+// the sections found so far are published to the main thread after every chunk that discovered new ones.
+// Buckets are the ones of SectionIndexBuilder.
+public class StreamingSectionIndexer implements SectionIndexer {
+    private static final int DEFAULT_CHUNK_SIZE = 2048;
+
+    private final Executor executor;
+    private final Handler mainHandler;
+    private final AtomicInteger generation;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private OnSectionsPublishedListener listener;
+
+    // published, main thread
+    private Object[] sections = new Object[0];
+    private int[] starts = new int[0];
+    private int itemCount;
+    private boolean complete = true;
+
+    public StreamingSectionIndexer(Executor executor) {
+        this.executor = executor;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.generation = new AtomicInteger();
+    }
+
+    public void setOnSectionsPublishedListener(OnSectionsPublishedListener listener) {
+        this.listener = listener;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // items read between two checks for new sections, applies to the next start
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize <= 0");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // items read when the current sections were published
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    // the iterator is consumed on the executor, it must not be touched elsewhere until complete
+    public void start(final Iterator<? extends CharSequence> labels) {
+        final int token = generation.incrementAndGet();
+        final int chunkSize = this.chunkSize;
+
+        publish(new Object[0], new int[0], 0, false);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                stream(labels, chunkSize, token);
+            }
+        });
+    }
+
+    // reads the column of every row on the executor, the cursor is not closed
+    public void start(Cursor cursor, int column) {
+        start(new CursorLabelIterator(cursor, column));
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+        complete = true;
+    }
+
+    // worker thread
+    private void stream(Iterator<? extends CharSequence> labels, int chunkSize, int token) {
+        char[] buckets = new char[16];
+        int[] starts = new int[16];
+        int count = 0;
+        int published = 0;
+        int position = 0;
+
+        while (labels.hasNext()) {
+            if (position % chunkSize == 0) {
+                if (generation.get() != token) {
+                    return;
+                }
+
+                // only chunks that discovered sections are published
+                if (count != published) {
+                    post(buckets, starts, count, position, false, token);
+                    published = count;
+                }
+            }
+
+            char bucket = SectionBuckets.getBucket(labels.next());
+
+            if (count == 0 || buckets[count - 1] != bucket) {
+                if (count == buckets.length) {
+                    buckets = Arrays.copyOf(buckets, count * 2);
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+
+                buckets[count] = bucket;
+                starts[count] = position;
+                count++;
+            }
+
+            position++;
+        }
+
+        post(buckets, starts, count, position, true, token);
+    }
+
+    // worker thread, the copies are as long as the sections
+    private void post(char[] buckets, int[] starts, int count, final int itemCount, final boolean complete, final int token) {
+        final Object[] sections = new Object[count];
+        final int[] sectionStarts = Arrays.copyOf(starts, count);
+
+        for (int i = 0; i < count; i++) {
+            sections[i] = String.valueOf(buckets[i]);
+        }
+
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (generation.get() == token) {
+                    publish(sections, sectionStarts, itemCount, complete);
+                }
+            }
+        });
+    }
+
+    private void publish(Object[] sections, int[] starts, int itemCount, boolean complete) {
+        this.sections = sections;
+        this.starts = starts;
+        this.itemCount = itemCount;
+        this.complete = complete;
+
+        if (listener != null) {
+            listener.onSectionsPublished(this, complete);
+        }
+    }
+
+    @Override
+    public Object[] getSections() {
+        return sections;
+    }
+
+    @Override
+    public int getPositionForSection(int sectionIndex) {
+        if (starts.length == 0) {
+            return 0;
+        }
+
+        return starts[Math.max(0, Math.min(starts.length - 1, sectionIndex))];
+    }
+
+    // positions past the items read so far belong to the last known section
+    @Override
+    public int getSectionForPosition(int position) {
+        int low = 0;
+        int high = starts.length - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+
+            if (starts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return Math.max(0, low);
+    }
+
+    public interface OnSectionsPublishedListener {
+        // called on the main thread, typically followed by FastScroller.notifySectionsChanged
+        void onSectionsPublished(StreamingSectionIndexer indexer, boolean complete);
+    }
+
+    private static final class CursorLabelIterator implements Iterator<CharSequence> {
+        private final Cursor cursor;
+        private final int column;
+        private boolean ready;
+        private boolean available;
+
+        CursorLabelIterator(Cursor cursor, int column) {
+            this.cursor = cursor;
+            this.column = column;
+            cursor.moveToPosition(-1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!ready) {
+                available = !cursor.isClosed() && cursor.moveToNext();
+                ready = true;
+            }
+
+            return available;
+        }
+
+        @Override
+        public CharSequence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ready = false;
+            return cursor.getString(column);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
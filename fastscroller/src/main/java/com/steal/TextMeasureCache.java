@@ -0,0 +1,148 @@
+package com.steal;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Process-wide LRU of label widths keyed by (text, text size, typeface).
+// Other paint properties (text scale, letter spacing, ...) are not part of the key.
+public final class TextMeasureCache {
+    private static final int DEFAULT_MAX_SIZE = 512;
+
+    private static final TextMeasureCache INSTANCE = new TextMeasureCache(DEFAULT_MAX_SIZE);
+
+    private final LinkedHashMap<Key, Float> cache;
+    private final Key probe;
+    private int maxSize;
+    private long hitCount;
+    private long missCount;
+
+    public static TextMeasureCache getInstance() {
+        return INSTANCE;
+    }
+
+    private TextMeasureCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.probe = new Key(null, 0, null);
+        this.cache = new LinkedHashMap<Key, Float>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Float> eldest) {
+                return size() > TextMeasureCache.this.maxSize;
+            }
+        };
+    }
+
+    public float measureText(Paint paint, String text) {
+        float textSize = paint.getTextSize();
+        Typeface typeface = paint.getTypeface();
+
+        synchronized (this) {
+            probe.set(text, textSize, typeface);
+
+            Float width = cache.get(probe);
+
+            probe.set(null, 0, null);
+
+            if (width != null) {
+                hitCount++;
+                return width;
+            }
+
+            missCount++;
+        }
+
+        float width = paint.measureText(text);
+
+        synchronized (this) {
+            cache.put(new Key(text, textSize, typeface), width);
+        }
+
+        return width;
+    }
+
+    // seeds a width measured earlier, e.g. restored from disk
+    public synchronized void put(String text, float textSize, Typeface typeface, float width) {
+        cache.put(new Key(text, textSize, typeface), width);
+    }
+
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+
+        this.maxSize = maxSize;
+
+        while (cache.size() > maxSize) {
+            Key eldest = cache.keySet().iterator().next();
+            cache.remove(eldest);
+        }
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized void evictAll() {
+        cache.clear();
+    }
+
+    public synchronized void resetCounters() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    private static final class Key {
+        private String text;
+        private float textSize;
+        private Typeface typeface;
+
+        Key(String text, float textSize, Typeface typeface) {
+            set(text, textSize, typeface);
+        }
+
+        void set(String text, float textSize, Typeface typeface) {
+            this.text = text;
+            this.textSize = textSize;
+            this.typeface = typeface;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return textSize == key.textSize
+                    && (typeface == null ? key.typeface == null : typeface.equals(key.typeface))
+                    && (text == null ? key.text == null : text.equals(key.text));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text != null ? text.hashCode() : 0;
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.steal.common;
+
+// binary indexed tree of non-negative counts, updates and prefix queries in O(log n)
+public class FenwickTree {
+    private final int[] tree;
+    private final int size;
+    private final int topStep;
+
+    public FenwickTree(int size) {
+        this.size = size;
+        this.tree = new int[size + 1];
+        this.topStep = size > 0 ? Integer.highestOneBit(size) : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int index, int delta) {
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // sum of [0, end)
+    public int prefixSum(int end) {
+        int sum = 0;
+
+        for (int i = Math.min(end, size); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+
+        return sum;
+    }
+
+    public int get(int index) {
+        return prefixSum(index + 1) - prefixSum(index);
+    }
+
+    public int total() {
+        return prefixSum(size);
+    }
+
+    // index whose range contains the offset, size() if offset >= total()
+    public int find(int offset) {
+        int index = 0;
+
+        for (int step = topStep; step > 0; step >>= 1) {
+            int next = index + step;
+
+            if (next <= size && tree[next] <= offset) {
+                index = next;
+                offset -= tree[next];
+            }
+        }
+
+        return index;
+    }
+
+    public void clear() {
+        for (int i = 0; i < tree.length; i++) {
+            tree[i] = 0;
+        }
+    }
+}
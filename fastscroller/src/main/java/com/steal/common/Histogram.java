@@ -0,0 +1,96 @@
+package com.steal.common;
+
+// fixed bucket histogram, bucket i counts values <= bounds[i], the last bucket counts the rest
+public class Histogram {
+    private final long[] bounds;
+    private final long[] buckets;
+    private long count;
+    private long sum;
+    private long max;
+
+    public Histogram(long[] bounds) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("bounds must be ascending");
+            }
+        }
+
+        this.bounds = bounds.clone();
+        this.buckets = new long[bounds.length + 1];
+    }
+
+    public void record(long value) {
+        int low = 0;
+        int high = bounds.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (bounds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        buckets[low]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    // upper bound of the bucket, Long.MAX_VALUE for the last one
+    public long getBucketBound(int bucket) {
+        return bucket < bounds.length ? bounds[bucket] : Long.MAX_VALUE;
+    }
+
+    public long getBucket(int bucket) {
+        return buckets[bucket];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+
+    // upper bound of the bucket containing the percentile, 0 ~ 1
+    public long getPercentileBound(float percentile) {
+        long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+
+            if (seen >= target && seen > 0) {
+                return getBucketBound(i);
+            }
+        }
+
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.steal.common;
+
+import java.text.Normalizer;
+
+// Section of a label by its first character:
+// Latin letters folded to A ~ Z, Hangul by the initial consonant (double consonants merged), each digit, '#' otherwise
+public final class SectionBuckets {
+    public static final char OTHER = '#';
+
+    private static final int HANGUL_BASE = 0xAC00;
+    private static final int HANGUL_LAST = 0xD7A3;
+    private static final int HANGUL_INITIAL_PERIOD = 21 * 28;
+
+    private static final int JAMO_BASE = 0x3131;
+    private static final int JAMO_LAST = 0x314E;
+
+    private static final int LATIN_BASE = 0x00C0;
+    private static final int LATIN_LAST = 0x024F;
+
+    // initial consonant of a syllable -> compatibility jamo
+    private static final String HANGUL_INITIALS = "\u3131\u3131\u3134\u3137\u3137\u3139\u3141\u3142\u3142\u3145\u3145\u3147\u3148\u3148\u314A\u314B\u314C\u314D\u314E";
+
+    // compatibility jamo U+3131 ~ U+314E -> single initial consonant
+    private static final String HANGUL_JAMO = "\u3131\u3131\u3131\u3134\u3134\u3134\u3137\u3137\u3139\u3139\u3139\u3139\u3139\u3139\u3139\u3139\u3141\u3142\u3142\u3142\u3145\u3145\u3147\u3148\u3148\u314A\u314B\u314C\u314D\u314E";
+
+    // letters without a canonical decomposition, upper case, each followed by its section
+    // AE, ETH, O with stroke, THORN, sharp S, D with stroke, H with stroke, dotless I, IJ, KRA, L with middle dot, L with stroke, ENG, OE, T with stroke, long S
+    private static final String LATIN_EXTRA = "\u00C6A\u00D0D\u00D8O\u00DET\u00DFS\u0110D\u0126H\u0131I\u0132I\u0138K\u013FL\u0141L\u014AN\u0152O\u0166T\u017FS";
+
+    private static final char[] LATIN_FOLD = createLatinFold();
+
+    private SectionBuckets() {
+    }
+
+    public static char getBucket(CharSequence label) {
+        if (label == null) {
+            return OTHER;
+        }
+
+        int length = label.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = label.charAt(i);
+
+            if (!Character.isWhitespace(c)) {
+                return getBucket(c);
+            }
+        }
+
+        return OTHER;
+    }
+
+    public static char getBucket(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c;
+        }
+
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - 'a' + 'A');
+        }
+
+        if (c >= '0' && c <= '9') {
+            return c;
+        }
+
+        if (c >= HANGUL_BASE && c <= HANGUL_LAST) {
+            return HANGUL_INITIALS.charAt((c - HANGUL_BASE) / HANGUL_INITIAL_PERIOD);
+        }
+
+        if (c >= JAMO_BASE && c <= JAMO_LAST) {
+            return HANGUL_JAMO.charAt(c - JAMO_BASE);
+        }
+
+        if (c >= LATIN_BASE && c <= LATIN_LAST) {
+            return LATIN_FOLD[c - LATIN_BASE];
+        }
+
+        // full width and other scripts' digits
+        int digit = Character.digit(c, 10);
+
+        if (digit >= 0) {
+            return (char) ('0' + digit);
+        }
+
+        return OTHER;
+    }
+
+    private static char[] createLatinFold() {
+        char[] fold = new char[LATIN_LAST - LATIN_BASE + 1];
+
+        for (int i = 0; i < fold.length; i++) {
+            String decomposed = Normalizer.normalize(String.valueOf((char) (LATIN_BASE + i)), Normalizer.Form.NFD);
+            char base = Character.toUpperCase(decomposed.charAt(0));
+
+            fold[i] = base >= 'A' && base <= 'Z' ? base : OTHER;
+        }
+
+        // both cases, "\u00F8ystein" and "\u00D8ystein" share a section
+        for (int i = 0; i < LATIN_EXTRA.length(); i += 2) {
+            char letter = LATIN_EXTRA.charAt(i);
+            char lower = Character.toLowerCase(letter);
+
+            fold[letter - LATIN_BASE] = LATIN_EXTRA.charAt(i + 1);
+
+            if (lower >= LATIN_BASE && lower <= LATIN_LAST) {
+                fold[lower - LATIN_BASE] = LATIN_EXTRA.charAt(i + 1);
+            }
+        }
+
+        return fold;
+    }
+}
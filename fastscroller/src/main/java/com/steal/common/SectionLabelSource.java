@@ -0,0 +1,12 @@
+package com.steal.common;
+
+// Sections provided label by label instead of SectionIndexer.getSections,
+// implemented by the SectionIndexer given to FastScroller. Labels are only requested for the sections being drawn.
+public interface SectionLabelSource {
+    int getSectionCount();
+
+    String getSectionLabel(int section);
+
+    // a label at least as wide as every other, measured instead of all of them, null to measure each label
+    String getWidestLabel();
+}
@@ -0,0 +1,137 @@
+package com.steal.common;
+
+public class SectionLabels {
+    private static final String[] EMPTY_LABELS = new String[0];
+    private static final float[] EMPTY_WIDTHS = new float[0];
+
+    private String[] labels = EMPTY_LABELS;
+    private float[] widths = EMPTY_WIDTHS;
+    private int length;
+    private SectionLabelSource source;
+
+    public int getLength() {
+        return length;
+    }
+
+    public String get(int index) {
+        return source != null ? source.getSectionLabel(index) : labels[index];
+    }
+
+    // labels are fetched from the source on demand, no array or width is kept
+    public boolean isLazy() {
+        return source != null;
+    }
+
+    public SectionLabelSource getSource() {
+        return source;
+    }
+
+    // backing array, valid up to getLength(), empty when lazy
+    public String[] getArray() {
+        return labels;
+    }
+
+    public boolean isMeasured(int index) {
+        return !Float.isNaN(widths[index]);
+    }
+
+    public float getWidth(int index) {
+        return widths[index];
+    }
+
+    public void setWidth(int index, float width) {
+        widths[index] = width;
+    }
+
+    public void invalidateWidths() {
+        if (source != null) {
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            widths[i] = Float.NaN;
+        }
+    }
+
+    // unchanged sections keep their strings and widths unless reset,
+    // returns whether any section or the length changed
+    public boolean update(Object[] sections, boolean reset) {
+        int newLength = sections != null ? sections.length : 0;
+        boolean changed = source != null || newLength != length;
+
+        if (source != null) {
+            source = null;
+            length = 0;
+        }
+
+        int oldLength = length;
+
+        ensureCapacity(newLength);
+
+        for (int i = 0; i < newLength; i++) {
+            if (!reset && i < oldLength && isSameSection(labels[i], sections[i])) {
+                continue;
+            }
+
+            labels[i] = String.valueOf(sections[i]);
+            widths[i] = Float.NaN;
+            changed = true;
+        }
+
+        for (int i = newLength; i < oldLength; i++) {
+            labels[i] = null;
+        }
+
+        length = newLength;
+        return changed || reset;
+    }
+
+    // lazy sections can't be compared without fetching every label, so they always count as changed
+    public boolean update(SectionLabelSource source, boolean reset) {
+        this.source = source;
+
+        labels = EMPTY_LABELS;
+        widths = EMPTY_WIDTHS;
+        length = source.getSectionCount();
+        return true;
+    }
+
+    // takes ownership of the arrays without copying, they are modified by later updates
+    // and must not be used by the caller afterwards
+    public void set(String[] labels, float[] widths) {
+        this.source = null;
+        this.labels = labels;
+        this.widths = widths;
+        this.length = labels.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (labels.length >= capacity) {
+            return;
+        }
+
+        // geometric growth for indexers publishing their sections incrementally
+        int newCapacity = labels.length == 0 ? capacity : Math.max(capacity, labels.length * 2);
+
+        String[] newLabels = new String[newCapacity];
+        float[] newWidths = new float[newCapacity];
+
+        System.arraycopy(labels, 0, newLabels, 0, length);
+        System.arraycopy(widths, 0, newWidths, 0, length);
+
+        labels = newLabels;
+        widths = newWidths;
+    }
+
+    private static boolean isSameSection(String label, Object section) {
+        if (section instanceof CharSequence) {
+            return label.contentEquals((CharSequence) section);
+        }
+
+        if (section instanceof Character) {
+            return label.length() == 1 && label.charAt(0) == (Character) section;
+        }
+
+        return label.equals(String.valueOf(section));
+    }
+}
@@ -0,0 +1,328 @@
+package com.steal.common;
+
+import java.util.Arrays;
+
+public class SectionLayout {
+    private int count;
+    private float sectionHeight;
+    private float spacing;
+
+    // weighted
+    private float[] weights;
+    private float[] sortedWeights;
+    private float[] weightedTops;
+    private int weightCount;
+    private double weightTotal;
+    private boolean weighted;
+    private float minHeight;
+
+    // fit
+    private float fittedSectionHeight;
+    private float fittedSpacing;
+
+    // decimation
+    private int[] labelSlots;
+    private int labelSlotCount;
+
+    // distributes contentHeight between the sections, sectionHeight < 0 to derive it from the content height
+    public void fit(float contentHeight, float sectionHeight, float spacing, float textHeight) {
+        boolean auto = sectionHeight < 0;
+
+        fittedSpacing = spacing;
+        fittedSectionHeight = auto ? textHeight : sectionHeight;
+
+        if (count == 0) {
+            return;
+        }
+
+        if (auto) {
+            fittedSectionHeight = Math.max(0, contentHeight - count * fittedSpacing) / count;
+        }
+
+        float desiredHeight = (fittedSectionHeight + fittedSpacing) * count;
+
+        if (desiredHeight < contentHeight) {
+            fittedSpacing = (contentHeight - fittedSectionHeight * count) / count;
+        } else {
+            fittedSpacing = 0;
+            desiredHeight = fittedSectionHeight * count;
+
+            if (desiredHeight > contentHeight) {
+                fittedSectionHeight = contentHeight / (float) count;
+            } else {
+                fittedSpacing = (contentHeight - desiredHeight) / count;
+            }
+        }
+    }
+
+    public float getFittedSectionHeight() {
+        return fittedSectionHeight;
+    }
+
+    public float getFittedSpacing() {
+        return fittedSpacing;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    // weights of each section, null or a zero sum for the uniform layout
+    public void setWeights(float[] weights, int length) {
+        if (weights == null || length == 0) {
+            weighted = false;
+            return;
+        }
+
+        if (this.weights == null || this.weights.length < length) {
+            this.weights = new float[length];
+            sortedWeights = new float[length];
+            weightedTops = new float[length + 1];
+        }
+
+        double total = 0;
+
+        for (int i = 0; i < length; i++) {
+            this.weights[i] = Math.max(0, weights[i]);
+            total += this.weights[i];
+        }
+
+        weightCount = length;
+        weightTotal = total;
+        weighted = total > 0;
+
+        if (weighted) {
+            layoutWeights();
+        }
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    // every section gets sectionHeight + spacing, the weighted layout shares the same total height
+    // in proportion to the weights with at least minHeight for every row
+    public void setMetrics(float sectionHeight, float spacing, float minHeight) {
+        this.sectionHeight = sectionHeight;
+        this.spacing = spacing;
+        this.minHeight = minHeight;
+
+        if (weighted) {
+            layoutWeights();
+        }
+    }
+
+    // rows below minHeight are clamped to it and the deficit is taken from the others, in proportion to their weights
+    private void layoutWeights() {
+        int length = weightCount;
+        float totalHeight = (sectionHeight + spacing) * length;
+        float min = Math.max(0, Math.min(minHeight, sectionHeight + spacing));
+
+        System.arraycopy(weights, 0, sortedWeights, 0, length);
+        Arrays.sort(sortedWeights, 0, length);
+
+        // the k lightest rows are clamped once the k-th one gets minHeight from the height left to the heavier ones
+        double remaining = weightTotal;
+        double scale = 0;
+
+        for (int k = 0; k < length; k++) {
+            double freeHeight = totalHeight - (double) min * k;
+
+            if (remaining > 0 && sortedWeights[k] * freeHeight / remaining >= min) {
+                scale = freeHeight / remaining;
+                break;
+            }
+
+            remaining -= sortedWeights[k];
+        }
+
+        double top = 0;
+
+        weightedTops[0] = 0;
+
+        for (int i = 0; i < length; i++) {
+            top += Math.max(min, weights[i] * scale);
+            weightedTops[i + 1] = (float) top;
+        }
+    }
+
+    public float getTop(int index) {
+        if (weighted) {
+            return weightedTops[Math.max(0, Math.min(index, Math.min(count, weightCount)))];
+        }
+
+        return index * (sectionHeight + spacing);
+    }
+
+    public float getHeight(int index) {
+        return getTop(index + 1) - getTop(index);
+    }
+
+    public float getCenter(int index) {
+        return getTop(index) + getHeight(index) / 2f;
+    }
+
+    // spacing around the label of a section, the weighted layout has none
+    public float getHalfSpacing() {
+        return weighted ? 0 : spacing / 2;
+    }
+
+    public float getTotalHeight() {
+        return getTop(count);
+    }
+
+    // index of the section containing y, clamped to the sections
+    public int findIndex(float y) {
+        if (count == 0) {
+            return -1;
+        }
+
+        float groupHeight = sectionHeight + spacing;
+        int index;
+
+        if (!weighted) {
+            index = groupHeight > 0 ? (int) Math.floor(y / groupHeight) : 0;
+        } else {
+            int low = 0;
+            int high = count - 1;
+
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+
+                if (getTop(mid) <= y) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            index = low;
+        }
+
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    // section under y, -1 if y is on the spacing between sections
+    public int findSection(float y) {
+        if (count == 0) {
+            return -1;
+        }
+
+        float halfSpacing = getHalfSpacing();
+
+        y = Math.min(Math.max(y, halfSpacing), getTotalHeight() - halfSpacing);
+
+        int index = findIndex(y);
+        float offset = y - getTop(index);
+
+        if (halfSpacing <= offset && offset <= getHeight(index) - halfSpacing) {
+            return index;
+        }
+
+        return -1;
+    }
+
+    // picks the sections whose labels are at least minGap apart, none if every label fits
+    public void updateLabelSlots(float minGap) {
+        labelSlotCount = 0;
+
+        if (count == 0 || minGap <= 0) {
+            return;
+        }
+
+        if (!weighted && sectionHeight + spacing >= minGap) {
+            return;
+        }
+
+        int capacity = Math.min(count, (int) (getTotalHeight() / minGap) + 2);
+
+        if (labelSlots == null || labelSlots.length < capacity) {
+            labelSlots = new int[capacity];
+        }
+
+        int index = 0;
+
+        // greedy, the next label is the first section whose center is minGap away
+        while (index < count && labelSlotCount < capacity) {
+            labelSlots[labelSlotCount++] = index;
+
+            float next = getCenter(index) + minGap;
+            int nextIndex = findIndex(next);
+
+            if (getCenter(nextIndex) < next) {
+                nextIndex++;
+            }
+
+            index = Math.max(index + 1, nextIndex);
+        }
+
+        if (labelSlotCount == count) {
+            labelSlotCount = 0;
+        }
+    }
+
+    public void clearLabelSlots() {
+        labelSlotCount = 0;
+    }
+
+    public int getLabelSlotCount() {
+        return labelSlotCount;
+    }
+
+    public int getLabelSlot(int slot) {
+        return labelSlots[slot];
+    }
+
+    // rows drawn in order, only the label slots when decimated
+    public int getDrawnCount() {
+        return labelSlotCount > 0 ? labelSlotCount : count;
+    }
+
+    public int getDrawnSection(int row) {
+        return labelSlotCount > 0 ? labelSlots[row] : row;
+    }
+
+    // first drawn row reaching y, a decimated row starts with the dot before its successor
+    public int findFirstDrawn(float y) {
+        if (count == 0) {
+            return 0;
+        }
+
+        int index = findIndex(y);
+
+        return labelSlotCount > 0 ? Math.max(0, findLabelSlot(index) - 1) : index;
+    }
+
+    // last drawn row starting before y
+    public int findLastDrawn(float y) {
+        if (count == 0) {
+            return -1;
+        }
+
+        int index = findIndex(y);
+
+        return labelSlotCount > 0 ? findLabelSlot(index + 1) - 1 : index;
+    }
+
+    // first slot whose section is >= index
+    public int findLabelSlot(int index) {
+        int low = 0;
+        int high = labelSlotCount;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (labelSlots[mid] < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
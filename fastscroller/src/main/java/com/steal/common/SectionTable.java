@@ -0,0 +1,86 @@
+package com.steal.common;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Sections of a sorted label list built in one pass,
+// both lookups are array reads
+public final class SectionTable {
+    private final String[] sections;
+    private final int[] starts;
+    private final int[] positionSections;
+
+    private SectionTable(String[] sections, int[] starts, int[] positionSections) {
+        this.sections = sections;
+        this.starts = starts;
+        this.positionSections = positionSections;
+    }
+
+    public static SectionTable build(CharSequence[] labels) {
+        return build(Arrays.asList(labels));
+    }
+
+    // labels must be sorted so that the labels of one bucket are adjacent,
+    // a bucket appearing again later starts another section
+    public static SectionTable build(List<? extends CharSequence> labels) {
+        int count = labels.size();
+        int[] positionSections = new int[count];
+        char[] buckets = new char[16];
+        int[] starts = new int[16];
+        int sectionCount = 0;
+        int position = 0;
+
+        for (CharSequence label : labels) {
+            char bucket = SectionBuckets.getBucket(label);
+
+            if (sectionCount == 0 || buckets[sectionCount - 1] != bucket) {
+                if (sectionCount == buckets.length) {
+                    buckets = Arrays.copyOf(buckets, sectionCount * 2);
+                    starts = Arrays.copyOf(starts, sectionCount * 2);
+                }
+
+                buckets[sectionCount] = bucket;
+                starts[sectionCount] = position;
+                sectionCount++;
+            }
+
+            positionSections[position++] = sectionCount - 1;
+        }
+
+        String[] sections = new String[sectionCount];
+
+        for (int i = 0; i < sectionCount; i++) {
+            sections[i] = String.valueOf(buckets[i]);
+        }
+
+        return new SectionTable(sections, Arrays.copyOf(starts, sectionCount), positionSections);
+    }
+
+    public String[] getSections() {
+        return sections;
+    }
+
+    public int getSectionCount() {
+        return sections.length;
+    }
+
+    public int getItemCount() {
+        return positionSections.length;
+    }
+
+    public int getPositionForSection(int section) {
+        if (starts.length == 0) {
+            return 0;
+        }
+
+        return starts[Math.max(0, Math.min(starts.length - 1, section))];
+    }
+
+    public int getSectionForPosition(int position) {
+        if (positionSections.length == 0) {
+            return 0;
+        }
+
+        return positionSections[Math.max(0, Math.min(positionSections.length - 1, position))];
+    }
+}
@@ -0,0 +1,127 @@
+package com.steal.common;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+// replays the SectionLayout calls of ACTION_MOVE and onDraw and counts the bytes the thread allocates
+public class SectionLayoutAllocationTest {
+    private static final float CONTENT_HEIGHT = 1920;
+    private static final float TEXT_HEIGHT = 40;
+    private static final int SAMPLES = 4096;
+    private static final int WARMUP = 20;
+
+    private com.sun.management.ThreadMXBean threads;
+    private float[] moves;
+    private float sink;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        threads = (com.sun.management.ThreadMXBean) bean;
+
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // a finger scrubbing up and down with jitter
+        Random random = new Random(42);
+        float y = 0;
+        float velocity = 12;
+
+        moves = new float[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            if (y < 0 || y > CONTENT_HEIGHT) {
+                velocity = -velocity;
+            }
+
+            y += velocity + random.nextFloat() * 4 - 2;
+            moves[i] = y;
+        }
+    }
+
+    @Test
+    public void uniformDoesNotAllocate() {
+        assertNoAllocation(createLayout(100, false, false));
+    }
+
+    @Test
+    public void weightedDoesNotAllocate() {
+        assertNoAllocation(createLayout(1000, true, false));
+    }
+
+    @Test
+    public void decimatedDoesNotAllocate() {
+        assertNoAllocation(createLayout(1000, true, true));
+    }
+
+    private SectionLayout createLayout(int count, boolean weighted, boolean decimated) {
+        SectionLayout layout = new SectionLayout();
+
+        layout.setCount(count);
+
+        if (weighted) {
+            float[] weights = new float[count];
+
+            for (int i = 0; i < count; i++) {
+                weights[i] = (i * 7919) % 97;
+            }
+
+            layout.setWeights(weights, count);
+        }
+
+        layout.fit(CONTENT_HEIGHT, -1, 0, TEXT_HEIGHT);
+        layout.setMetrics(layout.getFittedSectionHeight(), layout.getFittedSpacing(), TEXT_HEIGHT);
+
+        if (decimated) {
+            layout.updateLabelSlots(TEXT_HEIGHT);
+        }
+
+        return layout;
+    }
+
+    private void assertNoAllocation(SectionLayout layout) {
+        for (int i = 0; i < WARMUP; i++) {
+            replay(layout);
+        }
+
+        long start = getAllocatedBytes();
+        // the counter itself may allocate
+        long overhead = getAllocatedBytes() - start;
+
+        start = getAllocatedBytes();
+        replay(layout);
+
+        assertEquals(0, getAllocatedBytes() - start - overhead);
+    }
+
+    // every move hit tests the finger and redraws the rows around it
+    private void replay(SectionLayout layout) {
+        for (int i = 0; i < SAMPLES; i++) {
+            float y = moves[i];
+
+            sink += layout.findSection(y);
+
+            int first = layout.findFirstDrawn(y - TEXT_HEIGHT * 4);
+            int last = layout.findLastDrawn(y + TEXT_HEIGHT * 4);
+
+            for (int row = first; row <= last; row++) {
+                int index = layout.getDrawnSection(row);
+
+                sink += layout.getTop(index) + layout.getHeight(index) / 2f;
+            }
+        }
+    }
+
+    private long getAllocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}